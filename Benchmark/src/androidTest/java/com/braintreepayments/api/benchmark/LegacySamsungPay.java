@@ -0,0 +1,98 @@
+package com.braintreepayments.api.benchmark;
+
+import android.os.Parcel;
+
+import com.braintreepayments.api.models.BinData;
+import com.samsung.android.sdk.samsungpay.v2.SpaySdk;
+import com.samsung.android.sdk.samsungpay.v2.payment.CardInfo;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Copies of the implementations the hot paths had in 2.1.0, kept as baselines for the benchmarks.
+ */
+class LegacySamsungPay {
+
+    static class Nonce {
+        String nonce;
+        String description;
+        String cardType;
+        String sourceCardLast4;
+        BinData binData;
+    }
+
+    static Nonce fromPaymentData(String data) throws JSONException {
+        JSONObject json = new JSONObject(data);
+        JSONObject braintreeDataJson = new JSONObject(new JSONObject(json.getString("data")).getString("data"));
+        JSONObject paymentMethod = braintreeDataJson.getJSONObject("tokenizeSamsungPayCard")
+                .getJSONObject("paymentMethod");
+        JSONObject details = paymentMethod.getJSONObject("details");
+
+        Nonce nonce = new Nonce();
+        nonce.nonce = paymentMethod.getString("id");
+        nonce.cardType = details.getString("brand");
+        nonce.sourceCardLast4 = details.getString("last4");
+        nonce.description = "ending in " + nonce.sourceCardLast4;
+
+        String formattedBinData = details.getJSONObject("binData")
+                .toString()
+                .replace("UNKNOWN", "Unknown")
+                .replace("YES", "Yes")
+                .replace("NO", "No");
+        nonce.binData = BinData.fromJson(new JSONObject(formattedBinData));
+        return nonce;
+    }
+
+    static void writeToParcel(Nonce nonce, Parcel parcel) {
+        parcel.writeString(nonce.cardType);
+        parcel.writeString(nonce.sourceCardLast4);
+        parcel.writeParcelable(nonce.binData, 0);
+    }
+
+    static Nonce readFromParcel(Parcel parcel) {
+        Nonce nonce = new Nonce();
+        nonce.cardType = parcel.readString();
+        nonce.sourceCardLast4 = parcel.readString();
+        nonce.binData = parcel.readParcelable(BinData.class.getClassLoader());
+        return nonce;
+    }
+
+    static List<SpaySdk.Brand> getAcceptedCardBrands(Set<String> configurationBrands) {
+        List<SpaySdk.Brand> samsungAcceptedList = new ArrayList<>();
+        for (String braintreeAcceptedCardBrand : configurationBrands) {
+            switch (braintreeAcceptedCardBrand.toLowerCase()) {
+                case "visa":
+                    samsungAcceptedList.add(SpaySdk.Brand.VISA);
+                    break;
+                case "mastercard":
+                    samsungAcceptedList.add(SpaySdk.Brand.MASTERCARD);
+                    break;
+                case "discover":
+                    samsungAcceptedList.add(SpaySdk.Brand.DISCOVER);
+                    break;
+                case "american_express":
+                    samsungAcceptedList.add(SpaySdk.Brand.AMERICANEXPRESS);
+                    break;
+            }
+        }
+        return samsungAcceptedList;
+    }
+
+    // customerCardBrands.intersect(acceptedCardBrands).isNotEmpty()
+    static boolean hasAcceptedCard(List<CardInfo> cards, Set<String> configurationBrands) {
+        List<SpaySdk.Brand> acceptedCardBrands = getAcceptedCardBrands(configurationBrands);
+        List<SpaySdk.Brand> customerCardBrands = new ArrayList<>(cards.size());
+        for (CardInfo card : cards) {
+            customerCardBrands.add(card.getBrand());
+        }
+        Set<SpaySdk.Brand> intersection = new HashSet<>(customerCardBrands);
+        intersection.retainAll(acceptedCardBrands);
+        return !intersection.isEmpty();
+    }
+}
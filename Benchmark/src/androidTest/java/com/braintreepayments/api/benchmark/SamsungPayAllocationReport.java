@@ -0,0 +1,167 @@
+package com.braintreepayments.api.benchmark;
+
+import android.content.Context;
+import android.os.Debug;
+import android.os.Parcel;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.braintreepayments.api.BraintreePartnerInfo;
+import com.braintreepayments.api.SamsungPayCardBrandMatcher;
+import com.braintreepayments.api.models.Configuration;
+import com.braintreepayments.api.models.SamsungPayNonce;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Set;
+
+import static com.braintreepayments.api.test.FixturesHelper.stringFromFixture;
+
+/**
+ * The benchmark library only reports time, so allocations per operation are counted here and written next to its
+ * results as samsung-pay-allocations.json.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SamsungPayAllocationReport {
+
+    private static final int WARMUP = 1000;
+    private static final int ITERATIONS = 10000;
+
+    private interface Operation {
+        void run() throws Exception;
+    }
+
+    @Test
+    public void writeAllocationReport() throws Exception {
+        final String paymentCredential = stringFromFixture("payment_methods/samsung_pay_response.json");
+        final Configuration configuration =
+                Configuration.fromJson(stringFromFixture("configuration/with_samsung_pay.json"));
+        final Set<String> supportedCardBrands = configuration.getSamsungPay().getSupportedCardBrands();
+        final SamsungPayNonce nonce = SamsungPayNonce.Companion.fromPaymentData(paymentCredential);
+        final LegacySamsungPay.Nonce legacyNonce = LegacySamsungPay.fromPaymentData(paymentCredential);
+        final Parcel parcel = Parcel.obtain();
+        final String[] sessionIds = { "session-a", "session-b" };
+        final int[] session = { 0 };
+
+        JSONArray results = new JSONArray();
+        results.put(measure("fromPaymentData", new Operation() {
+            @Override
+            public void run() {
+                SamsungPayNonce.Companion.fromPaymentData(paymentCredential);
+            }
+        }));
+        results.put(measure("fromPaymentData_readingBinData", new Operation() {
+            @Override
+            public void run() {
+                SamsungPayNonce.Companion.fromPaymentData(paymentCredential).getBinData();
+            }
+        }));
+        results.put(measure("legacy_fromPaymentData", new Operation() {
+            @Override
+            public void run() throws JSONException {
+                LegacySamsungPay.fromPaymentData(paymentCredential);
+            }
+        }));
+        results.put(measure("parcel_writeAndRead", new Operation() {
+            @Override
+            public void run() {
+                parcel.setDataSize(0);
+                nonce.writeToParcel(parcel, 0);
+                parcel.setDataPosition(0);
+                SamsungPayNonce.CREATOR.createFromParcel(parcel).getBinData();
+            }
+        }).put("parcelBytes", parcelSize(nonce)));
+        results.put(measure("legacy_parcel_writeAndRead", new Operation() {
+            @Override
+            public void run() {
+                parcel.setDataSize(0);
+                LegacySamsungPay.writeToParcel(legacyNonce, parcel);
+                parcel.setDataPosition(0);
+                LegacySamsungPay.readFromParcel(parcel);
+            }
+        }).put("parcelBytes", legacyParcelSize(legacyNonce)));
+        results.put(measure("partnerInfo_build", new Operation() {
+            @Override
+            public void run() {
+                BraintreePartnerInfo.from(configuration, sessionIds[session[0]++ & 1], "custom");
+            }
+        }));
+        results.put(measure("cardBrandMatcher_build", new Operation() {
+            @Override
+            public void run() {
+                new SamsungPayCardBrandMatcher(supportedCardBrands).getAcceptedBrands();
+            }
+        }));
+        results.put(measure("legacy_getAcceptedCardBrands", new Operation() {
+            @Override
+            public void run() {
+                LegacySamsungPay.getAcceptedCardBrands(supportedCardBrands);
+            }
+        }));
+        parcel.recycle();
+
+        write(new JSONObject().put("iterations", ITERATIONS).put("results", results));
+    }
+
+    @SuppressWarnings("deprecation")
+    private static JSONObject measure(String name, Operation operation) throws Exception {
+        for (int i = 0; i < WARMUP; i++) {
+            operation.run();
+        }
+
+        Debug.resetThreadAllocCount();
+        Debug.resetThreadAllocSize();
+        Debug.startAllocCounting();
+        for (int i = 0; i < ITERATIONS; i++) {
+            operation.run();
+        }
+        Debug.stopAllocCounting();
+
+        return new JSONObject()
+                .put("name", name)
+                .put("allocationsPerOp", (double) Debug.getThreadAllocCount() / ITERATIONS)
+                .put("allocatedBytesPerOp", (double) Debug.getThreadAllocSize() / ITERATIONS);
+    }
+
+    private static int parcelSize(SamsungPayNonce nonce) {
+        Parcel parcel = Parcel.obtain();
+        nonce.writeToParcel(parcel, 0);
+        int size = parcel.dataSize();
+        parcel.recycle();
+        return size;
+    }
+
+    private static int legacyParcelSize(LegacySamsungPay.Nonce nonce) {
+        Parcel parcel = Parcel.obtain();
+        LegacySamsungPay.writeToParcel(nonce, parcel);
+        int size = parcel.dataSize();
+        parcel.recycle();
+        return size;
+    }
+
+    private static void write(JSONObject report) throws IOException, JSONException {
+        String outputDir = InstrumentationRegistry.getArguments().getString("additionalTestOutputDir");
+        File directory;
+        if (outputDir != null) {
+            directory = new File(outputDir);
+        } else {
+            Context context = InstrumentationRegistry.getInstrumentation().getContext();
+            directory = context.getExternalMediaDirs()[0];
+        }
+
+        FileWriter writer = new FileWriter(new File(directory, "samsung-pay-allocations.json"));
+        try {
+            writer.write(report.toString(2));
+        } finally {
+            writer.close();
+        }
+    }
+}
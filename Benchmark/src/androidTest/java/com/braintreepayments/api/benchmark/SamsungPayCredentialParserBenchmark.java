@@ -0,0 +1,66 @@
+package com.braintreepayments.api.benchmark;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.braintreepayments.api.models.SamsungPayCredentialParser;
+import com.braintreepayments.api.test.PaddedCredentials.Padding;
+
+import org.json.JSONException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static com.braintreepayments.api.test.PaddedCredentials.credential;
+
+// Each padding is measured at a small and at the largest accepted size. Parse time should grow about linearly with
+// size, so the 60k results should stay around 15x the 4k results.
+@RunWith(AndroidJUnit4.class)
+public class SamsungPayCredentialParserBenchmark {
+
+    private static final int SMALL = 4 * 1024;
+    private static final int LARGE = 60 * 1024;
+
+    @Rule
+    public BenchmarkRule mBenchmarkRule = new BenchmarkRule();
+
+    @Test
+    public void parse_stringPadding_4k() throws JSONException {
+        parse(SMALL, Padding.STRING);
+    }
+
+    @Test
+    public void parse_stringPadding_60k() throws JSONException {
+        parse(LARGE, Padding.STRING);
+    }
+
+    @Test
+    public void parse_memberPadding_4k() throws JSONException {
+        parse(SMALL, Padding.MEMBERS);
+    }
+
+    @Test
+    public void parse_memberPadding_60k() throws JSONException {
+        parse(LARGE, Padding.MEMBERS);
+    }
+
+    @Test
+    public void parse_arrayPadding_4k() throws JSONException {
+        parse(SMALL, Padding.ARRAYS);
+    }
+
+    @Test
+    public void parse_arrayPadding_60k() throws JSONException {
+        parse(LARGE, Padding.ARRAYS);
+    }
+
+    private void parse(int size, Padding padding) throws JSONException {
+        String credential = credential(size, padding);
+
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            SamsungPayCredentialParser.INSTANCE.parse(credential);
+        }
+    }
+}
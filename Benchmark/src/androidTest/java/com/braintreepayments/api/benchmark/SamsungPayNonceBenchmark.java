@@ -0,0 +1,80 @@
+package com.braintreepayments.api.benchmark;
+
+import android.os.Parcel;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.braintreepayments.api.models.SamsungPayNonce;
+
+import org.json.JSONException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static com.braintreepayments.api.test.FixturesHelper.stringFromFixture;
+
+@RunWith(AndroidJUnit4.class)
+public class SamsungPayNonceBenchmark {
+
+    @Rule
+    public BenchmarkRule mBenchmarkRule = new BenchmarkRule();
+
+    private final String mPaymentCredential = stringFromFixture("payment_methods/samsung_pay_response.json");
+
+    @Test
+    public void fromPaymentData() {
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            SamsungPayNonce.Companion.fromPaymentData(mPaymentCredential);
+        }
+    }
+
+    @Test
+    public void fromPaymentData_readingBinData() {
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            SamsungPayNonce.Companion.fromPaymentData(mPaymentCredential).getBinData();
+        }
+    }
+
+    @Test
+    public void legacy_fromPaymentData() throws JSONException {
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            LegacySamsungPay.fromPaymentData(mPaymentCredential);
+        }
+    }
+
+    @Test
+    public void parcel_writeAndRead() {
+        SamsungPayNonce nonce = SamsungPayNonce.Companion.fromPaymentData(mPaymentCredential);
+        nonce.getBinData();
+        Parcel parcel = Parcel.obtain();
+
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            parcel.setDataSize(0);
+            nonce.writeToParcel(parcel, 0);
+            parcel.setDataPosition(0);
+            SamsungPayNonce.CREATOR.createFromParcel(parcel).getBinData();
+        }
+        parcel.recycle();
+    }
+
+    @Test
+    public void legacy_parcel_writeAndRead() throws JSONException {
+        LegacySamsungPay.Nonce nonce = LegacySamsungPay.fromPaymentData(mPaymentCredential);
+        Parcel parcel = Parcel.obtain();
+
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            parcel.setDataSize(0);
+            LegacySamsungPay.writeToParcel(nonce, parcel);
+            parcel.setDataPosition(0);
+            LegacySamsungPay.readFromParcel(parcel);
+        }
+        parcel.recycle();
+    }
+}
@@ -0,0 +1,100 @@
+package com.braintreepayments.api.benchmark;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.braintreepayments.api.BraintreePartnerInfo;
+import com.braintreepayments.api.SamsungPayCardBrandMatcher;
+import com.braintreepayments.api.models.Configuration;
+import com.samsung.android.sdk.samsungpay.v2.SpaySdk;
+import com.samsung.android.sdk.samsungpay.v2.payment.CardInfo;
+
+import org.json.JSONException;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static com.braintreepayments.api.test.FixturesHelper.stringFromFixture;
+
+@RunWith(AndroidJUnit4.class)
+public class SamsungPayPartnerInfoBenchmark {
+
+    @Rule
+    public BenchmarkRule mBenchmarkRule = new BenchmarkRule();
+
+    private Configuration mConfiguration;
+    private Set<String> mSupportedCardBrands;
+
+    // The accepted brand is last, so every card is checked.
+    private final List<CardInfo> mWalletCards = Arrays.asList(
+            new CardInfo.Builder().setBrand(SpaySdk.Brand.CHINAUNIONPAY).build(),
+            new CardInfo.Builder().setBrand(SpaySdk.Brand.UNKNOWN_CARD).build(),
+            new CardInfo.Builder().setBrand(SpaySdk.Brand.CHINAUNIONPAY).build(),
+            new CardInfo.Builder().setBrand(SpaySdk.Brand.VISA).build());
+
+    @Before
+    public void setup() throws JSONException {
+        mConfiguration = Configuration.fromJson(stringFromFixture("configuration/with_samsung_pay.json"));
+        mSupportedCardBrands = mConfiguration.getSamsungPay().getSupportedCardBrands();
+    }
+
+    @Test
+    public void partnerInfo_build() {
+        // Alternating session ids defeats the memoization, so every iteration builds the bundle and JSON.
+        String[] sessionIds = { "session-a", "session-b" };
+        int i = 0;
+
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            BraintreePartnerInfo.from(mConfiguration, sessionIds[i++ & 1], "custom");
+        }
+    }
+
+    @Test
+    public void partnerInfo_memoized() {
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            BraintreePartnerInfo.from(mConfiguration, "session-a", "custom");
+        }
+    }
+
+    @Test
+    public void cardBrandMatcher_build() {
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            new SamsungPayCardBrandMatcher(mSupportedCardBrands).getAcceptedBrands();
+        }
+    }
+
+    @Test
+    public void legacy_getAcceptedCardBrands() {
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            LegacySamsungPay.getAcceptedCardBrands(mSupportedCardBrands);
+        }
+    }
+
+    @Test
+    public void cardBrandMatcher_acceptsAny() {
+        SamsungPayCardBrandMatcher matcher = new SamsungPayCardBrandMatcher(mSupportedCardBrands);
+
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            matcher.acceptsAny(mWalletCards);
+        }
+    }
+
+    @Test
+    public void legacy_brandIntersection() {
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            LegacySamsungPay.hasAcceptedCard(mWalletCards, mSupportedCardBrands);
+        }
+    }
+}
@@ -1,10 +1,86 @@
 package com.braintreepayments.api
 
 import android.os.Bundle
+import com.braintreepayments.api.models.Configuration
+import com.braintreepayments.api.models.MetadataBuilder
 import com.braintreepayments.api.models.SamsungPayConfiguration
 import com.samsung.android.sdk.samsungpay.v2.PartnerInfo
+import com.samsung.android.sdk.samsungpay.v2.SpaySdk
+import com.samsung.android.sdk.samsungpay.v2.payment.PaymentManager
+import org.json.JSONObject
 
 internal class BraintreePartnerInfo(
     val configuration: SamsungPayConfiguration,
     data: Bundle
-) : PartnerInfo(configuration.serviceId, data)
+) : PartnerInfo(configuration.serviceId, data) {
+
+    val cardBrandMatcher = SamsungPayCardBrandMatcher(configuration.supportedCardBrands)
+
+    private var sourceConfiguration: Configuration? = null
+    private var sessionId: String? = null
+    private var integrationType: String? = null
+
+    val additionalData: String?
+        get() = data.getString("additionalData")
+
+    companion object {
+        @Volatile
+        private var memoized: BraintreePartnerInfo? = null
+
+        /**
+         * Returns the memoized [BraintreePartnerInfo] if it was built for the same arguments, otherwise null.
+         */
+        @JvmStatic
+        fun peek(configuration: Configuration, sessionId: String?, integrationType: String?): BraintreePartnerInfo? {
+            val current = memoized
+            if (current != null &&
+                current.sourceConfiguration === configuration &&
+                current.sessionId == sessionId &&
+                current.integrationType == integrationType
+            ) {
+                return current
+            }
+            return null
+        }
+
+        /**
+         * Returns the [BraintreePartnerInfo] for [configuration], [sessionId] and [integrationType]. The partner info
+         * and its serialized additional data are built once and reused until any of them changes.
+         */
+        @JvmStatic
+        fun from(configuration: Configuration, sessionId: String?, integrationType: String?): BraintreePartnerInfo {
+            val current = peek(configuration, sessionId, integrationType)
+            if (current != null) {
+                return current
+            }
+
+            val bundle = Bundle()
+
+            bundle.putString(SpaySdk.PARTNER_SERVICE_TYPE, SpaySdk.ServiceType.INAPP_PAYMENT.toString())
+            bundle.putBoolean(
+                PaymentManager.EXTRA_KEY_TEST_MODE,
+                configuration.samsungPay.environment.toUpperCase() == "SANDBOX"
+            )
+
+            val additionalData = JSONObject()
+            additionalData.put("braintreeTokenizationApiVersion", SamsungPay.BRAINTREE_TOKENIZATION_API_VERSION)
+            additionalData.put(
+                "clientSdkMetadata", MetadataBuilder()
+                    .integration(integrationType)
+                    .sessionId(sessionId)
+                    .version()
+                    .build()
+            )
+
+            bundle.putString("additionalData", additionalData.toString())
+
+            val partnerInfo = BraintreePartnerInfo(configuration.samsungPay, bundle)
+            partnerInfo.sourceConfiguration = configuration
+            partnerInfo.sessionId = sessionId
+            partnerInfo.integrationType = integrationType
+
+            memoized = partnerInfo
+            return partnerInfo
+        }
+    }
+}
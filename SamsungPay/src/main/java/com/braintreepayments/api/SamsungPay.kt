@@ -1,22 +1,23 @@
 package com.braintreepayments.api
 
 import android.os.Bundle
+import android.os.CancellationSignal
+import android.os.SystemClock
 import com.braintreepayments.api.exceptions.SamsungPayException
 import com.braintreepayments.api.interfaces.BraintreeErrorListener
 import com.braintreepayments.api.interfaces.BraintreeResponseListener
+import com.braintreepayments.api.interfaces.SamsungPayAsyncTransactionUpdateListener
 import com.braintreepayments.api.interfaces.SamsungPayCustomTransactionUpdateListener
 import com.braintreepayments.api.internal.ClassHelper
-import com.braintreepayments.api.models.MetadataBuilder
-import com.samsung.android.sdk.samsungpay.v2.PartnerInfo
 import com.samsung.android.sdk.samsungpay.v2.SamsungPay
-import com.samsung.android.sdk.samsungpay.v2.SpaySdk
 import com.samsung.android.sdk.samsungpay.v2.SpaySdk.*
 import com.samsung.android.sdk.samsungpay.v2.StatusListener
 import com.samsung.android.sdk.samsungpay.v2.payment.CardInfo
 import com.samsung.android.sdk.samsungpay.v2.payment.CustomSheetPaymentInfo
 import com.samsung.android.sdk.samsungpay.v2.payment.PaymentManager
-import org.json.JSONObject
 import java.util.*
+import java.util.concurrent.Executor
+import java.util.concurrent.atomic.AtomicBoolean
 
 class SamsungPayAvailability() {
     var status: Int = SPAY_NOT_SUPPORTED
@@ -37,8 +38,180 @@ class SamsungPayAvailability() {
 class SamsungPay {
     companion object {
         const val SPAY_NO_SUPPORTED_CARDS_IN_WALLET = -10000
+        const val SPAY_READINESS_TIMEOUT = -10001
+        const val SPAY_PAYMENT_IN_PROGRESS = -10002
         const val BRAINTREE_TOKENIZATION_API_VERSION = "2018-10-01"
 
+        const val DEFAULT_SHEET_UPDATE_COALESCING_WINDOW_MILLIS = 100L
+
+        // Samsung Pay closes the sheet if it is not updated within about 5 seconds of a card change.
+        const val DEFAULT_CARD_UPDATE_DEADLINE_MILLIS = 4000L
+
+        @Volatile
+        private var speculativeCardInfoLookupEnabled = false
+
+        @Volatile
+        private var sheetUpdateCoalescingWindowMillis = DEFAULT_SHEET_UPDATE_COALESCING_WINDOW_MILLIS
+
+        @Volatile
+        private var paymentTimingsListener: BraintreeResponseListener<SamsungPayPaymentTimings>? = null
+
+        /**
+         * When enabled, [isReadyToPay] requests the customer's card info at the same time as the Samsung Pay status
+         * instead of waiting for the status to be [SPAY_READY]. This saves one round trip to Samsung Pay on devices
+         * where it is usually ready; the card info is discarded when it is not. Disabled by default.
+         *
+         * Compare [SamsungPayAvailabilityTimings] with and without this enabled to measure the difference.
+         *
+         * @param [enabled] true to request card info speculatively.
+         */
+        @JvmStatic
+        fun setSpeculativeCardInfoLookupEnabled(enabled: Boolean) {
+            speculativeCardInfoLookupEnabled = enabled
+        }
+
+        /**
+         * Sets how long sheet updates are coalesced for when the customer switches cards quickly. After
+         * [SamsungPayCustomTransactionUpdateListener.onCardInfoUpdated], the first sheet update is sent immediately;
+         * further updates within the window replace each other, and only the latest is sent when the window ends.
+         * [SamsungPayTransactionStats.getSkippedSheetUpdateCount] counts the updates that were replaced. Pass 0 to send
+         * every update immediately. Applies to payments started afterwards.
+         *
+         * @param [windowMillis] Coalescing window in milliseconds. Defaults to
+         * [DEFAULT_SHEET_UPDATE_COALESCING_WINDOW_MILLIS].
+         */
+        @JvmStatic
+        fun setSheetUpdateCoalescingWindow(windowMillis: Long) {
+            sheetUpdateCoalescingWindowMillis = windowMillis
+        }
+
+        /**
+         * Sets a listener that receives a [SamsungPayPaymentTimings] breakdown on the main thread whenever a payment
+         * started with [requestPayment] finishes, whether it was tokenized, failed or canceled. Pass null to stop
+         * receiving them.
+         *
+         * @param [listener] [BraintreeResponseListener] for the timings of each payment.
+         */
+        @JvmStatic
+        fun setPaymentTimingsListener(listener: BraintreeResponseListener<SamsungPayPaymentTimings>?) {
+            paymentTimingsListener = listener
+        }
+
+        /**
+         * Sets the [SamsungPayMetrics] that receives counters and timers for [isReadyToPay], [createPaymentInfo],
+         * [createPaymentManager] and [requestPayment], and for the card info and partner info lookups they make. Pass
+         * null to stop reporting; by default nothing is recorded.
+         *
+         * @param [metrics] [SamsungPayMetrics] implementation, such as [SamsungPayInMemoryMetrics].
+         */
+        @JvmStatic
+        fun setMetrics(metrics: SamsungPayMetrics?) {
+            SamsungPayMetricsRecorder.setMetrics(metrics)
+        }
+
+        /**
+         * Sets the [Executor] used for work the Samsung Pay module moves off the main thread, such as building partner
+         * info, parsing the payment credential into a [com.braintreepayments.api.models.SamsungPayNonce] and sending
+         * batches of analytics events. Pass null
+         * to restore the default single background thread. Results are always delivered on the main thread; use a
+         * serial executor to keep them in the order Samsung Pay reported them.
+         *
+         * @param [executor] [Executor] to run background work on.
+         */
+        @JvmStatic
+        fun setBackgroundExecutor(executor: Executor?) {
+            SamsungPayExecutors.setBackground(executor)
+        }
+
+        /**
+         * Prepares the Samsung Pay checkout path ahead of time, for example when the cart screen opens. This waits for
+         * the Braintree configuration, builds the Samsung Pay partner info off the main thread, binds a
+         * [PaymentManager] for the fragment's activity and caches the result of [isReadyToPay]. Later calls to
+         * [createPaymentInfo], [createPaymentManager] and [isReadyToPay] can then complete without waiting.
+         *
+         * If Samsung Pay reports an error, the error is posted to the fragment and the listener is still called, with
+         * an availability of SPAY_NOT_READY and the Samsung Pay error code as the reason.
+         *
+         * @param [fragment] [BraintreeFragment]
+         * @param [listener] Optional callback with a [SamsungPayPrewarmResult] describing how much was already warm.
+         */
+        @JvmStatic
+        @JvmOverloads
+        fun prewarm(
+            fragment: BraintreeFragment,
+            listener: BraintreeResponseListener<SamsungPayPrewarmResult>? = null
+        ) {
+            if (!isSamsungPayAvailable()) {
+                isReadyToPay(fragment, BraintreeResponseListener { availability ->
+                    listener?.onResponse(SamsungPayPrewarmResult(false, false, false, false, availability))
+                })
+                return
+            }
+
+            val configurationWarm = fragment.configuration != null
+            fragment.waitForConfiguration { configuration ->
+                val sessionId = fragment.sessionId
+                val integrationType = fragment.integrationType
+                val partnerInfoWarm = BraintreePartnerInfo.peek(configuration, sessionId, integrationType) != null
+                val availabilityWarm =
+                    SamsungPayAvailabilityCache.peek(SamsungPayAvailabilityCache.keyFor(configuration.samsungPay))
+
+                SamsungPayExecutors.background.execute {
+                    val braintreePartnerInfo = BraintreePartnerInfo.from(configuration, sessionId, integrationType)
+
+                    SamsungPayExecutors.runOnMain {
+                        val activity = fragment.activity
+                        val paymentManagerWarm = activity != null &&
+                                SamsungPayClientPool.hasPaymentManager(activity, braintreePartnerInfo)
+                        getPaymentManager(fragment, braintreePartnerInfo)
+
+                        isReadyToPay(fragment, null, BraintreeResponseListener { availability ->
+                            val result = SamsungPayPrewarmResult(
+                                configurationWarm,
+                                partnerInfoWarm,
+                                paymentManagerWarm,
+                                availabilityWarm,
+                                availability
+                            )
+                            SamsungPayAnalytics.send(fragment, SamsungPayAnalyticsEvent.PREWARM_SUCCESS)
+                            listener?.onResponse(result)
+                        }, BraintreeErrorListener { error ->
+                            val reason = (error as? SamsungPayException)?.code ?: 0
+                            listener?.onResponse(SamsungPayPrewarmResult(
+                                configurationWarm,
+                                partnerInfoWarm,
+                                paymentManagerWarm,
+                                availabilityWarm,
+                                SamsungPayAvailability(SPAY_NOT_READY, reason)
+                            ))
+                        })
+                    }
+                }
+            }
+        }
+
+        /**
+         * Subscribes to changes in Samsung Pay availability, as an alternative to calling [isReadyToPay] on every
+         * resume. The listener is called with the current [SamsungPayAvailability] and then only when it changes:
+         * after the Samsung Pay app is installed or updated, when the customer returns from the Samsung Pay update or
+         * activation pages, or when a re-check on resume finds a different result, e.g. after wallet cards changed.
+         *
+         * Re-checks on resume are answered from [SamsungPayAvailabilityCache] while it is valid, and concurrent checks
+         * are shared across subscribers. Samsung Pay errors are posted to the fragment like in [isReadyToPay]. The
+         * subscription ends by itself when the fragment's activity is destroyed.
+         *
+         * @param [fragment] [BraintreeFragment]
+         * @param [listener] Called on the main thread with each new [SamsungPayAvailability].
+         * @return a [SamsungPayAvailabilitySubscription]; call [SamsungPayAvailabilitySubscription.unsubscribe] to stop.
+         */
+        @JvmStatic
+        fun observeAvailability(
+            fragment: BraintreeFragment,
+            listener: BraintreeResponseListener<SamsungPayAvailability>
+        ): SamsungPayAvailabilitySubscription {
+            return SamsungPayAvailabilityMonitor.add(fragment, fragment.activity, listener)
+        }
+
         /**
          * Forwards the user to the Samsung Pay update page.
          * This should be invoked when Samsung Pay returns the [ERROR_SPAY_APP_NEED_TO_UPDATE] result from [isReadyToPay].
@@ -50,8 +223,10 @@ class SamsungPay {
             getPartnerInfo(fragment, BraintreeResponseListener { braintreePartnerInfo ->
                 val samsungPay = getSamsungPay(fragment, braintreePartnerInfo)
 
+                SamsungPayAvailabilityCache.invalidate()
+                fragment.activity?.let { SamsungPayAvailabilityCache.invalidateWhenResumed(it) }
                 samsungPay.goToUpdatePage()
-                fragment.sendAnalyticsEvent("samsung-pay.goto-update-page")
+                SamsungPayAnalytics.send(fragment, SamsungPayAnalyticsEvent.GOTO_UPDATE_PAGE)
             })
         }
 
@@ -66,8 +241,10 @@ class SamsungPay {
             getPartnerInfo(fragment, BraintreeResponseListener { braintreePartnerInfo ->
                 val samsungPay = getSamsungPay(fragment, braintreePartnerInfo)
 
+                SamsungPayAvailabilityCache.invalidate()
+                fragment.activity?.let { SamsungPayAvailabilityCache.invalidateWhenResumed(it) }
                 samsungPay.activateSamsungPay()
-                fragment.sendAnalyticsEvent("samsung-pay.activate-samsung-pay")
+                SamsungPayAnalytics.send(fragment, SamsungPayAnalyticsEvent.ACTIVATE_SAMSUNG_PAY)
             })
         }
 
@@ -88,50 +265,215 @@ class SamsungPay {
          * details on why Samsung Pay is not ready.
          *
          * SPAY_NOT_SUPPORTED - Samsung Pay is not supported on the current device.
+         *
+         * Results are cached process-wide, see [SamsungPayAvailabilityCache].
          */
         @JvmStatic
         fun isReadyToPay(fragment: BraintreeFragment, listener: BraintreeResponseListener<SamsungPayAvailability>) {
+            isReadyToPay(fragment, null, listener, null)
+        }
+
+        /**
+         * Same as [isReadyToPay], but can be cancelled. Once [cancellationSignal] is cancelled the listener is not
+         * called, and if no other caller is waiting for the same result, no further requests are made to Samsung Pay.
+         *
+         * @param [fragment] [BraintreeFragment]
+         * @param [cancellationSignal] [CancellationSignal] used to abandon the call.
+         * @param [listener] Callback with [SamsungPayAvailability].
+         */
+        @JvmStatic
+        fun isReadyToPay(
+            fragment: BraintreeFragment,
+            cancellationSignal: CancellationSignal?,
+            listener: BraintreeResponseListener<SamsungPayAvailability>
+        ) {
+            isReadyToPay(fragment, cancellationSignal, listener, null)
+        }
+
+        /**
+         * Same as [isReadyToPay], but always calls [listener] exactly once, within [timeoutMillis].
+         *
+         * If Samsung Pay does not answer in time, the listener is called with SPAY_NOT_READY and a reason of
+         * [SPAY_READINESS_TIMEOUT], and the lookup is abandoned. If Samsung Pay reports an error, the listener is called
+         * with SPAY_NOT_READY and the Samsung Pay error code as the reason; the error is also posted to the fragment.
+         * [SamsungPayAvailabilityTimings.getDeadlineExceededCount] counts how often the deadline was hit.
+         *
+         * @param [fragment] [BraintreeFragment]
+         * @param [timeoutMillis] Maximum time to wait for Samsung Pay, in milliseconds.
+         * @param [listener] Callback with [SamsungPayAvailability].
+         */
+        @JvmStatic
+        fun isReadyToPay(
+            fragment: BraintreeFragment,
+            timeoutMillis: Long,
+            listener: BraintreeResponseListener<SamsungPayAvailability>
+        ) {
+            val completed = AtomicBoolean()
+            val cancellationSignal = CancellationSignal()
+            val timeout = Runnable {
+                if (completed.compareAndSet(false, true)) {
+                    cancellationSignal.cancel()
+                    SamsungPayAvailabilityTimings.recordDeadlineExceeded()
+                    SamsungPayAnalytics.send(fragment, SamsungPayAnalyticsEvent.IS_READY_TO_PAY_TIMED_OUT)
+                    listener.onResponse(SamsungPayAvailability(SPAY_NOT_READY, SPAY_READINESS_TIMEOUT))
+                }
+            }
+            SamsungPayExecutors.postOnMainDelayed(timeout, timeoutMillis)
+
+            isReadyToPay(
+                fragment,
+                cancellationSignal,
+                BraintreeResponseListener { availability ->
+                    if (completed.compareAndSet(false, true)) {
+                        SamsungPayExecutors.removeFromMain(timeout)
+                        listener.onResponse(availability)
+                    }
+                },
+                BraintreeErrorListener { error ->
+                    if (completed.compareAndSet(false, true)) {
+                        SamsungPayExecutors.removeFromMain(timeout)
+                        val reason = (error as? SamsungPayException)?.code ?: 0
+                        listener.onResponse(SamsungPayAvailability(SPAY_NOT_READY, reason))
+                    }
+                },
+                true)
+        }
+
+        // hasDeadline marks callers that cancel when their deadline passes; if the last of them leaves, the lookup is
+        // treated as stuck and later callers start a fresh one.
+        @JvmStatic
+        internal fun isReadyToPay(
+            fragment: BraintreeFragment,
+            cancellationSignal: CancellationSignal?,
+            listener: BraintreeResponseListener<SamsungPayAvailability>,
+            errorListener: BraintreeErrorListener?,
+            hasDeadline: Boolean = false
+        ) {
+            val startNanos = SamsungPayMetricsRecorder.start(SamsungPayMetrics.Operation.IS_READY_TO_PAY)
+            if (startNanos != SamsungPayMetricsRecorder.NOT_STARTED) {
+                lookUpAvailability(fragment, cancellationSignal, BraintreeResponseListener { availability ->
+                    SamsungPayMetricsRecorder.stop(SamsungPayMetrics.Operation.IS_READY_TO_PAY,
+                        SamsungPayMetrics.Outcome.SUCCESS, startNanos)
+                    listener.onResponse(availability)
+                }, BraintreeErrorListener { error ->
+                    SamsungPayMetricsRecorder.stop(SamsungPayMetrics.Operation.IS_READY_TO_PAY,
+                        SamsungPayMetrics.Outcome.FAILURE, startNanos)
+                    errorListener?.onError(error)
+                }, hasDeadline)
+            } else {
+                lookUpAvailability(fragment, cancellationSignal, listener, errorListener, hasDeadline)
+            }
+        }
+
+        @JvmStatic
+        private fun lookUpAvailability(
+            fragment: BraintreeFragment,
+            cancellationSignal: CancellationSignal?,
+            listener: BraintreeResponseListener<SamsungPayAvailability>,
+            errorListener: BraintreeErrorListener?,
+            hasDeadline: Boolean
+        ) {
             if (!isSamsungPayAvailable()) {
                 listener.onResponse(SamsungPayAvailability(SPAY_NOT_SUPPORTED, Bundle()))
-                fragment.sendAnalyticsEvent("samsung-pay.is-ready-to-pay.samsung-pay-class-unavailable")
+                SamsungPayAnalytics.send(
+                    fragment, SamsungPayAnalyticsEvent.IS_READY_TO_PAY_SAMSUNG_PAY_CLASS_UNAVAILABLE)
                 return
             }
 
             getPartnerInfo(fragment, BraintreeResponseListener { braintreePartnerInfo ->
-                val samsungPay = getSamsungPay(fragment, braintreePartnerInfo)
+                if (cancellationSignal?.isCanceled == true) {
+                    return@BraintreeResponseListener
+                }
 
-                samsungPay.getSamsungPayStatus(object : StatusListener {
-                    override fun onSuccess(status: Int, bundle: Bundle) {
-                        val samsungPayAvailability = SamsungPayAvailability(status, bundle)
+                val cacheKey = SamsungPayAvailabilityCache.keyFor(braintreePartnerInfo.configuration)
+                val cachedAvailability = SamsungPayAvailabilityCache.get(cacheKey)
+                if (cachedAvailability != null) {
+                    listener.onResponse(cachedAvailability)
+                    SamsungPayAnalytics.send(fragment, SamsungPayAnalyticsEvent.IS_READY_TO_PAY_CACHE_HIT)
+                    return@BraintreeResponseListener
+                }
 
-                        if (status != SPAY_READY) {
-                            when (status) {
-                                SPAY_NOT_SUPPORTED -> fragment.sendAnalyticsEvent("samsung-pay.is-ready-to-pay.device-not-supported")
-                                SPAY_NOT_READY -> fragment.sendAnalyticsEvent("samsung-pay.is-ready-to-pay.not-ready")
-                            }
-                            listener.onResponse(samsungPayAvailability)
-                            return
-                        }
+                val waiter = SamsungPayAvailabilityRequest.Waiter(fragment, listener, errorListener, hasDeadline)
+                val request = SamsungPayAvailabilityRequest.join(cacheKey, waiter)
+                cancellationSignal?.setOnCancelListener { request.leave(waiter) }
+                if (request.owner !== waiter) {
+                    return@BraintreeResponseListener
+                }
 
-                        requestCardInfo(
-                            fragment,
-                            braintreePartnerInfo,
-                            BraintreeResponseListener { cardInfoAvailability ->
-                                val availability = cardInfoAvailability ?: samsungPayAvailability
+                SamsungPayAvailabilityCache.registerPackageReceiver(fragment.applicationContext)
+                requestAvailability(fragment, braintreePartnerInfo, request)
+            })
+        }
 
-                                if (availability.status == SPAY_READY) {
-                                    fragment.sendAnalyticsEvent("samsung-pay.is-ready-to-pay.ready")
-                                }
+        // Runs the Samsung Pay status and card info lookups once and delivers the result to every caller that
+        // joined the request in the meantime.
+        @JvmStatic
+        private fun requestAvailability(
+            fragment: BraintreeFragment,
+            braintreePartnerInfo: BraintreePartnerInfo,
+            request: SamsungPayAvailabilityRequest
+        ) {
+            val startNanos = SystemClock.elapsedRealtimeNanos()
+            val speculative = speculativeCardInfoLookupEnabled
+            val cardInfoLookup = SamsungPayCardInfoLookup()
+            if (speculative) {
+                cardInfoLookup.request(getPaymentManager(fragment, braintreePartnerInfo))
+            }
+
+            val samsungPay = getSamsungPay(fragment, braintreePartnerInfo)
 
-                                listener.onResponse(availability)
-                            })
+            samsungPay.getSamsungPayStatus(object : StatusListener {
+                override fun onSuccess(status: Int, bundle: Bundle) {
+                    val samsungPayAvailability = SamsungPayAvailability(status, bundle)
+
+                    if (status != SPAY_READY) {
+                        cardInfoLookup.discard()
+                        when (status) {
+                            SPAY_NOT_SUPPORTED ->
+                                SamsungPayAnalytics.send(fragment, SamsungPayAnalyticsEvent.IS_READY_TO_PAY_DEVICE_NOT_SUPPORTED)
+                            SPAY_NOT_READY ->
+                                SamsungPayAnalytics.send(fragment, SamsungPayAnalyticsEvent.IS_READY_TO_PAY_NOT_READY)
+                        }
+                        SamsungPayAvailabilityCache.put(request.key, samsungPayAvailability)
+                        request.complete(samsungPayAvailability)
+                        return
                     }
 
-                    override fun onFail(errorCode: Int, bundle: Bundle) {
-                        fragment.postCallback(SamsungPayException(errorCode, bundle))
-                        fragment.sendAnalyticsEvent("samsung-pay.is-ready-to-pay.failed")
+                    if (request.abandon()) {
+                        cardInfoLookup.discard()
+                        return
                     }
-                })
+
+                    if (!speculative) {
+                        cardInfoLookup.request(getPaymentManager(fragment, braintreePartnerInfo))
+                    }
+
+                    requestCardInfo(
+                        fragment,
+                        braintreePartnerInfo,
+                        cardInfoLookup,
+                        BraintreeResponseListener { cardInfoAvailability ->
+                            val availability = cardInfoAvailability ?: samsungPayAvailability
+
+                            if (availability.status == SPAY_READY) {
+                                SamsungPayAnalytics.send(fragment, SamsungPayAnalyticsEvent.IS_READY_TO_PAY_READY)
+                            }
+
+                            SamsungPayAvailabilityTimings.record(
+                                speculative,
+                                SystemClock.elapsedRealtimeNanos() - startNanos
+                            )
+                            SamsungPayAvailabilityCache.put(request.key, availability)
+                            request.complete(availability)
+                        },
+                        BraintreeErrorListener { error -> request.fail(error) })
+                }
+
+                override fun onFail(errorCode: Int, bundle: Bundle) {
+                    cardInfoLookup.discard()
+                    request.fail(SamsungPayException(errorCode, bundle))
+                    SamsungPayAnalytics.send(fragment, SamsungPayAnalyticsEvent.IS_READY_TO_PAY_FAILED)
+                }
             })
         }
 
@@ -140,23 +482,23 @@ class SamsungPay {
         private fun requestCardInfo(
             fragment: BraintreeFragment,
             braintreePartnerInfo: BraintreePartnerInfo,
-            listener: BraintreeResponseListener<SamsungPayAvailability?>
+            cardInfoLookup: SamsungPayCardInfoLookup,
+            listener: BraintreeResponseListener<SamsungPayAvailability?>,
+            errorListener: BraintreeErrorListener
         ) {
-            val paymentManager = getPaymentManager(fragment, braintreePartnerInfo)
-            paymentManager.requestCardInfo(Bundle(), object : PaymentManager.CardInfoListener {
+            cardInfoLookup.deliverTo(object : PaymentManager.CardInfoListener {
                 override fun onResult(cardResponse: MutableList<CardInfo>?) {
                     if (cardResponse == null) {
                         listener.onResponse(SamsungPayAvailability(SPAY_NOT_READY, SPAY_NO_SUPPORTED_CARDS_IN_WALLET))
-                        fragment.sendAnalyticsEvent("samsung-pay.request-card-info.no-supported-cards-in-wallet")
+                        SamsungPayAnalytics.send(
+                            fragment, SamsungPayAnalyticsEvent.REQUEST_CARD_INFO_NO_SUPPORTED_CARDS_IN_WALLET)
                         return
                     }
 
-                    val acceptedCardBrands =
-                        getAcceptedCardBrands(braintreePartnerInfo.configuration.supportedCardBrands)
-                    val customerCardBrands = cardResponse.map { response -> response.brand }
-                    if (customerCardBrands.intersect(acceptedCardBrands).isEmpty()) {
+                    if (!braintreePartnerInfo.cardBrandMatcher.acceptsAny(cardResponse)) {
                         listener.onResponse(SamsungPayAvailability(SPAY_NOT_READY, SPAY_NO_SUPPORTED_CARDS_IN_WALLET))
-                        fragment.sendAnalyticsEvent("samsung-pay.request-card-info.no-supported-cards-in-wallet")
+                        SamsungPayAnalytics.send(
+                            fragment, SamsungPayAnalyticsEvent.REQUEST_CARD_INFO_NO_SUPPORTED_CARDS_IN_WALLET)
                         return
                     }
 
@@ -164,8 +506,8 @@ class SamsungPay {
                 }
 
                 override fun onFailure(errorCode: Int, bundle: Bundle?) {
-                    fragment.postCallback(SamsungPayException(errorCode, bundle))
-                    fragment.sendAnalyticsEvent("samsung-pay.request-card-info.failed")
+                    errorListener.onError(SamsungPayException(errorCode, bundle))
+                    SamsungPayAnalytics.send(fragment, SamsungPayAnalyticsEvent.REQUEST_CARD_INFO_FAILED)
                 }
             })
         }
@@ -186,13 +528,16 @@ class SamsungPay {
             fragment: BraintreeFragment,
             listener: BraintreeResponseListener<CustomSheetPaymentInfo.Builder>
         ) {
+            val startNanos = SamsungPayMetricsRecorder.start(SamsungPayMetrics.Operation.CREATE_PAYMENT_INFO)
             getPartnerInfo(fragment, BraintreeResponseListener { braintreePartnerInfo ->
                 val paymentInfo = CustomSheetPaymentInfo.Builder()
                     .setMerchantName(braintreePartnerInfo.configuration.merchantDisplayName)
                     .setMerchantId(braintreePartnerInfo.configuration.samsungAuthorization)
-                    .setAllowedCardBrands(getAcceptedCardBrands(braintreePartnerInfo.configuration.supportedCardBrands))
+                    .setAllowedCardBrands(ArrayList(braintreePartnerInfo.cardBrandMatcher.acceptedBrands))
+                SamsungPayMetricsRecorder.stop(SamsungPayMetrics.Operation.CREATE_PAYMENT_INFO,
+                    SamsungPayMetrics.Outcome.SUCCESS, startNanos)
                 listener.onResponse(paymentInfo)
-                fragment.sendAnalyticsEvent("samsung-pay.create-payment-info.success")
+                SamsungPayAnalytics.send(fragment, SamsungPayAnalyticsEvent.CREATE_PAYMENT_INFO_SUCCESS)
             })
         }
 
@@ -209,10 +554,13 @@ class SamsungPay {
             fragment: BraintreeFragment,
             listener: BraintreeResponseListener<PaymentManager>
         ) {
+            val startNanos = SamsungPayMetricsRecorder.start(SamsungPayMetrics.Operation.CREATE_PAYMENT_MANAGER)
             getPartnerInfo(fragment, BraintreeResponseListener { braintreePartnerInfo ->
                 val paymentManager = getPaymentManager(fragment, braintreePartnerInfo)
+                SamsungPayMetricsRecorder.stop(SamsungPayMetrics.Operation.CREATE_PAYMENT_MANAGER,
+                    SamsungPayMetrics.Outcome.SUCCESS, startNanos)
                 listener.onResponse(paymentManager)
-                fragment.sendAnalyticsEvent("samsung-pay.create-payment-manager.success")
+                SamsungPayAnalytics.send(fragment, SamsungPayAnalyticsEvent.CREATE_PAYMENT_MANAGER_SUCCESS)
             })
         }
 
@@ -227,10 +575,17 @@ class SamsungPay {
          * @param [listener] [SamsungPayCustomTransactionUpdateListener]. Contains two methods to listen to:
          *
          * [SamsungPayCustomTransactionUpdateListener.onSuccess] which gets called when the Samsung Pay flow succeeded.
+         * The payment credential is parsed on the executor set with [setBackgroundExecutor], and the resulting nonce is
+         * posted to the [BraintreeFragment] on the main thread before this is called.
          *
          * [SamsungPayCustomTransactionUpdateListener.onCardInfoUpdated] which gets called when the customer selects
          * a different card payment method. This call must complete with a call to [PaymentManager.updateSheet] or one of the
          * alternatives.
+         *
+         * Only one payment sheet can be open per process. While one is open, calling this again with the same
+         * [paymentManager] and [listener], for example after a double tap, does nothing; any other call posts a
+         * [SamsungPayException] with code [SPAY_PAYMENT_IN_PROGRESS] to the fragment. The sheet is released once the
+         * payment is tokenized, fails or is canceled.
          */
         @JvmStatic
         fun requestPayment(
@@ -239,35 +594,110 @@ class SamsungPay {
             customSheetPaymentInfo: CustomSheetPaymentInfo,
             listener: SamsungPayCustomTransactionUpdateListener
         ) {
-            paymentManager.startInAppPayWithCustomSheet(
-                customSheetPaymentInfo,
-                SamsungPayCustomTransactionListenerWrapper(fragment, paymentManager, listener)
-            )
+            requestPayment(fragment, paymentManager, customSheetPaymentInfo,
+                SamsungPaySynchronousTransactionUpdateListener(listener), DEFAULT_CARD_UPDATE_DEADLINE_MILLIS, null)
         }
 
         /**
-         * @return true if the SamsungPay SDK is available in the classpath, i.e. you have included
-         * the Samsung Pay jar file in your declared app dependencies.
+         * Same as [requestPayment] with a [SamsungPayCustomTransactionUpdateListener], for merchants that update the
+         * sheet asynchronously when the customer selects a different card.
+         *
+         * [SamsungPayAsyncTransactionUpdateListener.onCardInfoUpdated] receives a [SamsungPaySheetUpdate]. Change its
+         * [SamsungPaySheetUpdate.customSheet] on the main thread and call [SamsungPaySheetUpdate.complete] once done. If
+         * that does not happen within [cardUpdateDeadlineMillis], the sheet is sent to Samsung Pay as it is at that point
+         * so Samsung Pay does not close it, and [SamsungPayTransactionStats.getCardUpdateDeadlineExceededCount] is
+         * incremented.
+         *
+         * The same one-sheet-per-process rule applies as for the other [requestPayment].
+         *
+         * @param [cardUpdateDeadlineMillis] How long to wait for [SamsungPaySheetUpdate.complete]. Defaults to
+         * [DEFAULT_CARD_UPDATE_DEADLINE_MILLIS].
          */
         @JvmStatic
-        fun isSamsungPayAvailable(): Boolean {
-            return ClassHelper.isClassAvailable("com.samsung.android.sdk.samsungpay.v2.SamsungPay")
+        @JvmOverloads
+        fun requestPayment(
+            fragment: BraintreeFragment,
+            paymentManager: PaymentManager,
+            customSheetPaymentInfo: CustomSheetPaymentInfo,
+            listener: SamsungPayAsyncTransactionUpdateListener,
+            cardUpdateDeadlineMillis: Long = DEFAULT_CARD_UPDATE_DEADLINE_MILLIS
+        ) {
+            requestPayment(fragment, paymentManager, customSheetPaymentInfo, listener, cardUpdateDeadlineMillis, null)
         }
 
         @JvmStatic
-        private fun getAcceptedCardBrands(configurationBrands: Set<String>): List<SpaySdk.Brand> {
-            val samsungAcceptedList = ArrayList<SpaySdk.Brand>()
-
-            for (braintreeAcceptedCardBrand in configurationBrands) {
-                when (braintreeAcceptedCardBrand.toLowerCase()) {
-                    "visa" -> samsungAcceptedList.add(SpaySdk.Brand.VISA)
-                    "mastercard" -> samsungAcceptedList.add(SpaySdk.Brand.MASTERCARD)
-                    "discover" -> samsungAcceptedList.add(SpaySdk.Brand.DISCOVER)
-                    "american_express" -> samsungAcceptedList.add(SpaySdk.Brand.AMERICANEXPRESS)
+        internal fun requestPayment(
+            fragment: BraintreeFragment,
+            paymentManager: PaymentManager,
+            customSheetPaymentInfo: CustomSheetPaymentInfo,
+            listener: SamsungPayAsyncTransactionUpdateListener,
+            cardUpdateDeadlineMillis: Long,
+            failureCallback: ((Exception?) -> Unit)?
+        ) {
+            val session = SamsungPayPaymentSession { timings ->
+                SamsungPayMetricsRecorder.record(SamsungPayMetrics.Operation.REQUEST_PAYMENT,
+                    outcomeOf(timings.finalPhase), timings.getTotalNanos())
+                val timingsListener = paymentTimingsListener
+                if (timingsListener != null) {
+                    SamsungPayExecutors.runOnMain { timingsListener.onResponse(timings) }
                 }
             }
+            // Every call is counted, including those that join or are rejected by an open sheet. The duration is
+            // measured by the session itself.
+            SamsungPayMetricsRecorder.increment(SamsungPayMetrics.Operation.REQUEST_PAYMENT)
+            when (SamsungPayPaymentSessionGuard.acquire(fragment.activity, paymentManager, listener, session)) {
+                SamsungPayPaymentSessionGuard.Result.JOINED -> {
+                    SamsungPayAnalytics.send(fragment, SamsungPayAnalyticsEvent.REQUEST_PAYMENT_JOINED)
+                    return
+                }
+                SamsungPayPaymentSessionGuard.Result.REJECTED -> {
+                    val exception = SamsungPayException(SPAY_PAYMENT_IN_PROGRESS, null)
+                    fragment.postCallback(exception)
+                    SamsungPayAnalytics.send(fragment, SamsungPayAnalyticsEvent.REQUEST_PAYMENT_REJECTED)
+                    failureCallback?.invoke(exception)
+                    return
+                }
+                SamsungPayPaymentSessionGuard.Result.ACQUIRED -> Unit
+            }
+
+            try {
+                paymentManager.startInAppPayWithCustomSheet(
+                    customSheetPaymentInfo,
+                    SamsungPayCustomTransactionListenerWrapper(
+                        fragment,
+                        paymentManager,
+                        listener,
+                        failureCallback,
+                        SamsungPaySheetUpdateCoalescer(paymentManager, sheetUpdateCoalescingWindowMillis),
+                        cardUpdateDeadlineMillis,
+                        session
+                    )
+                )
+            } catch (e: RuntimeException) {
+                // Release the guard; Samsung Pay will not call back for a sheet it never opened.
+                session.moveTo(SamsungPayPaymentPhase.FAILED)
+                throw e
+            }
+            // Samsung Pay has no callback for the sheet appearing; accepting the request is the closest signal.
+            session.moveTo(SamsungPayPaymentPhase.SHEET_SHOWN)
+        }
 
-            return samsungAcceptedList
+        @JvmStatic
+        private fun outcomeOf(phase: SamsungPayPaymentPhase): SamsungPayMetrics.Outcome {
+            return when (phase) {
+                SamsungPayPaymentPhase.TOKENIZED -> SamsungPayMetrics.Outcome.SUCCESS
+                SamsungPayPaymentPhase.CANCELED -> SamsungPayMetrics.Outcome.CANCELED
+                else -> SamsungPayMetrics.Outcome.FAILURE
+            }
+        }
+
+        /**
+         * @return true if the SamsungPay SDK is available in the classpath, i.e. you have included
+         * the Samsung Pay jar file in your declared app dependencies.
+         */
+        @JvmStatic
+        fun isSamsungPayAvailable(): Boolean {
+            return ClassHelper.isClassAvailable("com.samsung.android.sdk.samsungpay.v2.SamsungPay")
         }
 
         @JvmStatic
@@ -275,39 +705,33 @@ class SamsungPay {
             fragment: BraintreeFragment,
             listener: BraintreeResponseListener<BraintreePartnerInfo>
         ) {
+            val startNanos = SamsungPayMetricsRecorder.start(SamsungPayMetrics.Operation.GET_PARTNER_INFO)
             fragment.waitForConfiguration { configuration ->
-                val bundle = Bundle()
-
-                bundle.putString(PARTNER_SERVICE_TYPE, ServiceType.INAPP_PAYMENT.toString())
-                bundle.putBoolean(
-                    PaymentManager.EXTRA_KEY_TEST_MODE,
-                    configuration.samsungPay.environment.toUpperCase() == "SANDBOX"
-                )
-
-                val additionalData = JSONObject()
-                additionalData.put("braintreeTokenizationApiVersion", BRAINTREE_TOKENIZATION_API_VERSION)
-                additionalData.put(
-                    "clientSdkMetadata", MetadataBuilder()
-                        .integration(fragment.integrationType)
-                        .sessionId(fragment.sessionId)
-                        .version()
-                        .build()
-                )
-
-                bundle.putString("additionalData", additionalData.toString())
-
-                listener.onResponse(BraintreePartnerInfo(configuration.samsungPay, bundle))
+                val braintreePartnerInfo =
+                    BraintreePartnerInfo.from(configuration, fragment.sessionId, fragment.integrationType)
+                SamsungPayMetricsRecorder.stop(SamsungPayMetrics.Operation.GET_PARTNER_INFO,
+                    SamsungPayMetrics.Outcome.SUCCESS, startNanos)
+                listener.onResponse(braintreePartnerInfo)
             }
         }
 
         @JvmStatic
-        private fun getSamsungPay(fragment: BraintreeFragment, info: PartnerInfo): SamsungPay {
-            return SamsungPay(fragment.activity, info)
+        private fun getSamsungPay(fragment: BraintreeFragment, info: BraintreePartnerInfo): SamsungPay {
+            val activity = fragment.activity
+            if (activity == null) {
+                // Without an activity there is nothing to pool the instance by.
+                return SamsungPay(null, info)
+            }
+            return SamsungPayClientPool.samsungPay(activity, info) { SamsungPay(activity, info) }
         }
 
         @JvmStatic
-        private fun getPaymentManager(fragment: BraintreeFragment, info: PartnerInfo): PaymentManager {
-            return PaymentManager(fragment.activity, info)
+        private fun getPaymentManager(fragment: BraintreeFragment, info: BraintreePartnerInfo): PaymentManager {
+            val activity = fragment.activity
+            if (activity == null) {
+                return PaymentManager(null, info)
+            }
+            return SamsungPayClientPool.paymentManager(activity, info) { PaymentManager(activity, info) }
         }
     }
 }
@@ -0,0 +1,27 @@
+package com.braintreepayments.api
+
+import androidx.annotation.VisibleForTesting
+
+/**
+ * Entry point for Samsung Pay analytics events. Events are batched by a [SamsungPayAnalyticsQueue] with the default
+ * limits.
+ */
+internal object SamsungPayAnalytics {
+
+    @Volatile
+    private var queue = SamsungPayAnalyticsQueue()
+
+    val queueDepth: Int
+        get() = queue.queueDepth
+
+    fun send(fragment: BraintreeFragment, event: SamsungPayAnalyticsEvent) {
+        queue.send(fragment, event)
+    }
+
+    // Pass null to go back to a queue with the default limits.
+    @VisibleForTesting
+    @JvmName("setQueueForTesting")
+    internal fun setQueue(queue: SamsungPayAnalyticsQueue?) {
+        this.queue = queue ?: SamsungPayAnalyticsQueue()
+    }
+}
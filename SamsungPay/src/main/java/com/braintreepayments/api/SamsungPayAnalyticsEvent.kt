@@ -0,0 +1,40 @@
+package com.braintreepayments.api
+
+/**
+ * Every analytics event the Samsung Pay module sends. [wireName] is the name passed to
+ * [BraintreeFragment.sendAnalyticsEvent]; [id] is a stable number for the event and is never reused for a different
+ * one. Use these with [SamsungPayAnalyticsStats.getSentEventCount] to see how often each event was sent.
+ */
+enum class SamsungPayAnalyticsEvent(val id: Int, val wireName: String) {
+    PREWARM_SUCCESS(1, "samsung-pay.prewarm.success"),
+    GOTO_UPDATE_PAGE(2, "samsung-pay.goto-update-page"),
+    ACTIVATE_SAMSUNG_PAY(3, "samsung-pay.activate-samsung-pay"),
+    IS_READY_TO_PAY_SAMSUNG_PAY_CLASS_UNAVAILABLE(10, "samsung-pay.is-ready-to-pay.samsung-pay-class-unavailable"),
+    IS_READY_TO_PAY_CACHE_HIT(11, "samsung-pay.is-ready-to-pay.cache-hit"),
+    IS_READY_TO_PAY_DEVICE_NOT_SUPPORTED(12, "samsung-pay.is-ready-to-pay.device-not-supported"),
+    IS_READY_TO_PAY_NOT_READY(13, "samsung-pay.is-ready-to-pay.not-ready"),
+    IS_READY_TO_PAY_READY(14, "samsung-pay.is-ready-to-pay.ready"),
+    IS_READY_TO_PAY_FAILED(15, "samsung-pay.is-ready-to-pay.failed"),
+    IS_READY_TO_PAY_TIMED_OUT(16, "samsung-pay.is-ready-to-pay.timed-out"),
+    REQUEST_CARD_INFO_NO_SUPPORTED_CARDS_IN_WALLET(20, "samsung-pay.request-card-info.no-supported-cards-in-wallet"),
+    REQUEST_CARD_INFO_FAILED(21, "samsung-pay.request-card-info.failed"),
+    CREATE_PAYMENT_INFO_SUCCESS(30, "samsung-pay.create-payment-info.success"),
+    CREATE_PAYMENT_MANAGER_SUCCESS(31, "samsung-pay.create-payment-manager.success"),
+    CARD_INFO_UPDATED_TIMED_OUT(40, "samsung-pay.card-info-updated.timed-out"),
+    REQUEST_PAYMENT_SUCCESS(41, "samsung-pay.request-payment.success"),
+    REQUEST_PAYMENT_DUPLICATE_SUCCESS(42, "samsung-pay.request-payment.duplicate-success"),
+    REQUEST_PAYMENT_FAILED(43, "samsung-pay.request-payment.failed"),
+    REQUEST_PAYMENT_USER_CANCELED(44, "samsung-pay.request-payment.user-canceled"),
+    REQUEST_PAYMENT_JOINED(45, "samsung-pay.request-payment.joined"),
+    REQUEST_PAYMENT_REJECTED(46, "samsung-pay.request-payment.rejected");
+
+    companion object {
+        private val byWireName = values().associateBy { it.wireName }
+
+        /**
+         * @return the event sent as [wireName], or null if the Samsung Pay module has no event with that name.
+         */
+        @JvmStatic
+        fun fromWireName(wireName: String): SamsungPayAnalyticsEvent? = byWireName[wireName]
+    }
+}
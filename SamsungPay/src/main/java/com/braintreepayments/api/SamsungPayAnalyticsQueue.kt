@@ -0,0 +1,113 @@
+package com.braintreepayments.api
+
+import android.os.SystemClock
+import java.lang.ref.WeakReference
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.Executor
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Queues analytics events from Samsung Pay callbacks and passes them to [BraintreeFragment.sendAnalyticsEvent] in
+ * batches. Batches are drained on [customExecutor], or the background executor when it is null, and handed to the
+ * main thread with a single post, since [BraintreeFragment] may only be used from the main thread.
+ *
+ * A flush starts as soon as [batchSize] events are queued, or [flushIntervalMillis] after the first event of a batch
+ * otherwise. The queue is lock-free and holds at most [capacity] events; while it is full, new events are dropped so
+ * the ones already queued keep their order. Fragments are only weakly referenced, and events for a fragment that has
+ * been collected or fails [fragmentCheck] are dropped at delivery. [SamsungPayAnalyticsStats] reports the depth, drops
+ * and queueing delay.
+ */
+internal class SamsungPayAnalyticsQueue(
+    private val capacity: Int = DEFAULT_CAPACITY,
+    private val batchSize: Int = DEFAULT_BATCH_SIZE,
+    private val flushIntervalMillis: Long = DEFAULT_FLUSH_INTERVAL_MILLIS,
+    private val customExecutor: Executor? = null,
+    private val fragmentCheck: (BraintreeFragment) -> Boolean = { it.isAdded }
+) {
+
+    companion object {
+        const val DEFAULT_CAPACITY = 128
+        const val DEFAULT_BATCH_SIZE = 8
+        const val DEFAULT_FLUSH_INTERVAL_MILLIS = 1000L
+    }
+
+    private class Event(
+        val fragment: WeakReference<BraintreeFragment>,
+        val event: SamsungPayAnalyticsEvent,
+        val enqueuedAtMillis: Long
+    )
+
+    private val queue = ConcurrentLinkedQueue<Event>()
+    private val depth = AtomicInteger()
+    private val flushQueued = AtomicBoolean()
+    private val timerPosted = AtomicBoolean()
+
+    private val executor: Executor
+        get() = customExecutor ?: SamsungPayExecutors.background
+
+    private val flushTask = Runnable { flush() }
+
+    private val flushTimer = Runnable {
+        timerPosted.set(false)
+        requestFlush()
+    }
+
+    val queueDepth: Int
+        get() = depth.get()
+
+    fun send(fragment: BraintreeFragment, event: SamsungPayAnalyticsEvent) {
+        if (depth.incrementAndGet() > capacity) {
+            depth.decrementAndGet()
+            SamsungPayAnalyticsStats.recordDropped()
+            return
+        }
+        queue.offer(Event(WeakReference(fragment), event, SystemClock.elapsedRealtime()))
+
+        if (depth.get() >= batchSize) {
+            requestFlush()
+        } else if (timerPosted.compareAndSet(false, true)) {
+            SamsungPayExecutors.postOnMainDelayed(flushTimer, flushIntervalMillis)
+        }
+    }
+
+    private fun requestFlush() {
+        if (flushQueued.compareAndSet(false, true)) {
+            executor.execute(flushTask)
+        }
+    }
+
+    // Drains everything queued so far into one batch and delivers it with a single post to the main thread. Events
+    // queued while this runs request their own flush.
+    private fun flush() {
+        flushQueued.set(false)
+        val batch = ArrayList<Event>()
+        var event = queue.poll()
+        while (event != null) {
+            depth.decrementAndGet()
+            batch.add(event)
+            event = queue.poll()
+        }
+        if (batch.isNotEmpty()) {
+            SamsungPayExecutors.runOnMain { deliver(batch) }
+        }
+    }
+
+    private fun deliver(batch: List<Event>) {
+        val now = SystemClock.elapsedRealtime()
+        var sent = 0
+        for (event in batch) {
+            val fragment = event.fragment.get()
+            if (fragment == null || !fragmentCheck(fragment)) {
+                SamsungPayAnalyticsStats.recordDropped()
+                continue
+            }
+            SamsungPayAnalyticsStats.recordSent(event.event, now - event.enqueuedAtMillis)
+            fragment.sendAnalyticsEvent(event.event.wireName)
+            sent++
+        }
+        if (sent > 0) {
+            SamsungPayAnalyticsStats.recordBatch()
+        }
+    }
+}
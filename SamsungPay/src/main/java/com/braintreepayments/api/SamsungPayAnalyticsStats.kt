@@ -0,0 +1,85 @@
+package com.braintreepayments.api
+
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.AtomicLongArray
+
+/**
+ * Counters for the queue that batches Samsung Pay analytics events before they are sent to the [BraintreeFragment].
+ */
+class SamsungPayAnalyticsStats {
+    companion object {
+        private val droppedEventCount = AtomicLong()
+        private val sentEventCount = AtomicLong()
+        private val batchCount = AtomicLong()
+        private val maxQueueDelayMillis = AtomicLong()
+        private val sentEventCountByEvent = AtomicLongArray(SamsungPayAnalyticsEvent.values().size)
+
+        /**
+         * @return the number of events currently waiting to be sent.
+         */
+        @JvmStatic
+        fun getQueueDepth(): Int = SamsungPayAnalytics.queueDepth
+
+        /**
+         * @return the number of events dropped because the queue was full or their fragment was no longer added.
+         */
+        @JvmStatic
+        fun getDroppedEventCount(): Long = droppedEventCount.get()
+
+        /**
+         * @return the number of events sent to the [BraintreeFragment].
+         */
+        @JvmStatic
+        fun getSentEventCount(): Long = sentEventCount.get()
+
+        /**
+         * @return the number of times [event] was sent.
+         */
+        @JvmStatic
+        fun getSentEventCount(event: SamsungPayAnalyticsEvent): Long = sentEventCountByEvent.get(event.ordinal)
+
+        /**
+         * @return the number of batches the sent events were grouped into.
+         */
+        @JvmStatic
+        fun getBatchCount(): Long = batchCount.get()
+
+        /**
+         * @return the longest time in milliseconds an event waited in the queue. Braintree timestamps events when
+         * they are sent, so this is how far those timestamps can lag behind the event itself.
+         */
+        @JvmStatic
+        fun getMaxQueueDelayMillis(): Long = maxQueueDelayMillis.get()
+
+        /**
+         * Clears all counters. The queue depth is not a counter and is left as is.
+         */
+        @JvmStatic
+        fun reset() {
+            droppedEventCount.set(0)
+            sentEventCount.set(0)
+            batchCount.set(0)
+            maxQueueDelayMillis.set(0)
+            for (i in 0 until sentEventCountByEvent.length()) {
+                sentEventCountByEvent.set(i, 0)
+            }
+        }
+
+        internal fun recordDropped() {
+            droppedEventCount.incrementAndGet()
+        }
+
+        internal fun recordSent(event: SamsungPayAnalyticsEvent, queueDelayMillis: Long) {
+            sentEventCount.incrementAndGet()
+            sentEventCountByEvent.incrementAndGet(event.ordinal)
+            var max = maxQueueDelayMillis.get()
+            while (queueDelayMillis > max && !maxQueueDelayMillis.compareAndSet(max, queueDelayMillis)) {
+                max = maxQueueDelayMillis.get()
+            }
+        }
+
+        internal fun recordBatch() {
+            batchCount.incrementAndGet()
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.braintreepayments.api
+
+import android.app.Activity
+import android.app.Application
+import android.content.BroadcastReceiver
+import android.content.Context
+import android.content.Intent
+import android.content.IntentFilter
+import android.os.Bundle
+import android.os.SystemClock
+import com.braintreepayments.api.models.SamsungPayConfiguration
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Process-wide cache of the [SamsungPayAvailability] results returned by [SamsungPay.isReadyToPay], keyed by
+ * Samsung Pay service ID and environment.
+ *
+ * Cached results expire after the configured TTL. The cache is also cleared when the Samsung Pay app is installed,
+ * updated or removed, and when the customer is sent to the Samsung Pay update or activation pages. The Samsung Pay SDK
+ * does not report changes to the cards in the wallet, so the TTL bounds how long such a change can go unnoticed.
+ */
+class SamsungPayAvailabilityCache {
+    companion object {
+        const val DEFAULT_TTL_MILLIS = 5 * 60 * 1000L
+
+        internal const val SAMSUNG_PAY_PACKAGE = "com.samsung.android.spay"
+
+        private val entries = ConcurrentHashMap<String, Entry>()
+        private val hits = AtomicLong()
+        private val misses = AtomicLong()
+        private val packageReceiverRegistered = AtomicBoolean()
+        private val invalidationListeners = CopyOnWriteArrayList<Runnable>()
+
+        @Volatile
+        private var ttlMillis = DEFAULT_TTL_MILLIS
+
+        /**
+         * Sets how long a [SamsungPayAvailability] result is reused before Samsung Pay is queried again.
+         * A TTL of 0 disables caching.
+         *
+         * @param [ttlMillis] time to live in milliseconds.
+         */
+        @JvmStatic
+        fun setTtl(ttlMillis: Long) {
+            require(ttlMillis >= 0) { "ttlMillis must not be negative" }
+            this.ttlMillis = ttlMillis
+            if (ttlMillis == 0L) {
+                invalidate()
+            }
+        }
+
+        /**
+         * @return the current time to live in milliseconds.
+         */
+        @JvmStatic
+        fun getTtl(): Long = ttlMillis
+
+        /**
+         * Clears all cached results. The next call to [SamsungPay.isReadyToPay] queries Samsung Pay again.
+         */
+        @JvmStatic
+        fun invalidate() {
+            entries.clear()
+            for (listener in invalidationListeners) {
+                listener.run()
+            }
+        }
+
+        /**
+         * @return the number of [SamsungPay.isReadyToPay] calls answered from the cache.
+         */
+        @JvmStatic
+        fun getHitCount(): Long = hits.get()
+
+        /**
+         * @return the number of [SamsungPay.isReadyToPay] calls that had to query Samsung Pay.
+         */
+        @JvmStatic
+        fun getMissCount(): Long = misses.get()
+
+        internal fun keyFor(configuration: SamsungPayConfiguration): String {
+            return "${configuration.serviceId}:${configuration.environment}"
+        }
+
+        internal fun get(key: String): SamsungPayAvailability? {
+            val entry = entries[key]
+            if (entry == null || SystemClock.elapsedRealtime() - entry.createdAt >= ttlMillis) {
+                if (entry != null) {
+                    entries.remove(key, entry)
+                }
+                misses.incrementAndGet()
+                return null
+            }
+
+            hits.incrementAndGet()
+            return SamsungPayAvailability(entry.status, entry.reason)
+        }
+
+        // Like get, but does not count a hit or miss.
+        internal fun peek(key: String): Boolean {
+            val entry = entries[key]
+            return entry != null && SystemClock.elapsedRealtime() - entry.createdAt < ttlMillis
+        }
+
+        internal fun put(key: String, availability: SamsungPayAvailability) {
+            if (ttlMillis > 0) {
+                entries[key] = Entry(availability.status, availability.reason, SystemClock.elapsedRealtime())
+            }
+        }
+
+        /**
+         * Invalidates the cache again when [activity] is next resumed, i.e. when the customer comes back from the
+         * Samsung Pay app after updating or completing setup.
+         */
+        internal fun invalidateWhenResumed(activity: Activity) {
+            val application = activity.application ?: return
+            application.registerActivityLifecycleCallbacks(object : Application.ActivityLifecycleCallbacks {
+                override fun onActivityResumed(resumedActivity: Activity) {
+                    if (resumedActivity === activity) {
+                        application.unregisterActivityLifecycleCallbacks(this)
+                        invalidate()
+                    }
+                }
+
+                override fun onActivityDestroyed(destroyedActivity: Activity) {
+                    if (destroyedActivity === activity) {
+                        application.unregisterActivityLifecycleCallbacks(this)
+                    }
+                }
+
+                override fun onActivityCreated(activity: Activity, savedInstanceState: Bundle?) {}
+                override fun onActivityStarted(activity: Activity) {}
+                override fun onActivityPaused(activity: Activity) {}
+                override fun onActivityStopped(activity: Activity) {}
+                override fun onActivitySaveInstanceState(activity: Activity, outState: Bundle) {}
+            })
+        }
+
+        internal fun addInvalidationListener(listener: Runnable) {
+            invalidationListeners.addIfAbsent(listener)
+        }
+
+        internal fun removeInvalidationListener(listener: Runnable) {
+            invalidationListeners.remove(listener)
+        }
+
+        // Relies on the <queries> entry in the module's manifest; on Android 11 broadcasts for packages the app
+        // cannot see are not delivered.
+        internal fun registerPackageReceiver(context: Context) {
+            if (!packageReceiverRegistered.compareAndSet(false, true)) {
+                return
+            }
+
+            val filter = IntentFilter()
+            filter.addAction(Intent.ACTION_PACKAGE_ADDED)
+            filter.addAction(Intent.ACTION_PACKAGE_REPLACED)
+            filter.addAction(Intent.ACTION_PACKAGE_REMOVED)
+            filter.addAction(Intent.ACTION_PACKAGE_CHANGED)
+            filter.addDataScheme("package")
+
+            context.applicationContext.registerReceiver(SamsungPayPackageReceiver(), filter)
+        }
+    }
+
+    private class Entry(val status: Int, val reason: Int, val createdAt: Long)
+}
+
+/**
+ * Clears the [SamsungPayAvailabilityCache] whenever the Samsung Pay app is installed, updated or removed.
+ */
+internal class SamsungPayPackageReceiver : BroadcastReceiver() {
+    override fun onReceive(context: Context?, intent: Intent?) {
+        if (intent?.data?.schemeSpecificPart == SamsungPayAvailabilityCache.SAMSUNG_PAY_PACKAGE) {
+            SamsungPayAvailabilityCache.invalidate()
+        }
+    }
+}
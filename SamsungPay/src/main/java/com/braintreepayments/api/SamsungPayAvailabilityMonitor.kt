@@ -0,0 +1,116 @@
+package com.braintreepayments.api
+
+import android.app.Activity
+import android.app.Application
+import android.os.Bundle
+import com.braintreepayments.api.interfaces.BraintreeResponseListener
+
+/**
+ * Re-checks Samsung Pay availability for [SamsungPayAvailabilitySubscription]s when something may have changed: the
+ * [SamsungPayAvailabilityCache] was invalidated (package install or update, or the customer was sent to the update or
+ * activation page), or a subscriber's activity resumed, e.g. after setup was completed in the Samsung Pay app.
+ *
+ * Checks go through [SamsungPay.isReadyToPay], so they are answered from the cache while it is valid and are
+ * coalesced into one Samsung Pay request otherwise. Each subscriber's fragment is checked once per trigger.
+ * Subscriptions made from an activity end when that activity is destroyed, so the monitor never keeps a destroyed
+ * activity or its fragment alive.
+ */
+internal object SamsungPayAvailabilityMonitor {
+
+    private val subscriptions = ArrayList<SamsungPayAvailabilitySubscription>()
+    private var application: Application? = null
+
+    private val invalidationListener = Runnable {
+        SamsungPayExecutors.runOnMain { recheck(null) }
+    }
+
+    private val lifecycleCallbacks = object : Application.ActivityLifecycleCallbacks {
+        override fun onActivityResumed(activity: Activity) {
+            recheck(activity)
+        }
+
+        override fun onActivityCreated(activity: Activity, savedInstanceState: Bundle?) {}
+        override fun onActivityStarted(activity: Activity) {}
+        override fun onActivityPaused(activity: Activity) {}
+        override fun onActivityStopped(activity: Activity) {}
+        override fun onActivitySaveInstanceState(activity: Activity, outState: Bundle) {}
+        override fun onActivityDestroyed(activity: Activity) {
+            val destroyed = synchronized(this@SamsungPayAvailabilityMonitor) {
+                subscriptions.filter { it.belongsTo(activity) }
+            }
+            for (subscription in destroyed) {
+                subscription.unsubscribe()
+            }
+        }
+    }
+
+    fun add(
+        fragment: BraintreeFragment,
+        activity: Activity?,
+        listener: BraintreeResponseListener<SamsungPayAvailability>
+    ): SamsungPayAvailabilitySubscription {
+        val subscription = SamsungPayAvailabilitySubscription(fragment, activity, listener)
+        synchronized(this) {
+            if (subscriptions.isEmpty()) {
+                start(fragment, activity)
+            }
+            subscriptions.add(subscription)
+        }
+
+        checkAvailability(listOf(subscription))
+        return subscription
+    }
+
+    fun remove(subscription: SamsungPayAvailabilitySubscription) {
+        synchronized(this) {
+            if (subscriptions.remove(subscription) && subscriptions.isEmpty()) {
+                stop()
+            }
+        }
+    }
+
+    private fun start(fragment: BraintreeFragment, activity: Activity?) {
+        SamsungPayAvailabilityCache.addInvalidationListener(invalidationListener)
+
+        val application = activity?.application ?: fragment.applicationContext as? Application
+        application?.registerActivityLifecycleCallbacks(lifecycleCallbacks)
+        this.application = application
+    }
+
+    private fun stop() {
+        SamsungPayAvailabilityCache.removeInvalidationListener(invalidationListener)
+        application?.unregisterActivityLifecycleCallbacks(lifecycleCallbacks)
+        application = null
+    }
+
+    // Checks every subscription, or only those whose fragment belongs to resumedActivity.
+    private fun recheck(resumedActivity: Activity?) {
+        val targets = synchronized(this) {
+            subscriptions.filter { resumedActivity == null || it.belongsTo(resumedActivity) }
+        }
+        checkAvailability(targets)
+    }
+
+    // The fragment is detached by the time its activity reports onDestroy, so the activity it was added from is kept.
+    private fun SamsungPayAvailabilitySubscription.belongsTo(activity: Activity): Boolean =
+        this.activity === activity || fragment.activity === activity
+
+    private fun checkAvailability(targets: List<SamsungPayAvailabilitySubscription>) {
+        val fragments = ArrayList<BraintreeFragment>()
+        for (subscription in targets) {
+            if (fragments.none { it === subscription.fragment }) {
+                fragments.add(subscription.fragment)
+            }
+        }
+
+        for (fragment in fragments) {
+            SamsungPay.isReadyToPay(fragment, BraintreeResponseListener { availability ->
+                for (subscription in targets) {
+                    if (subscription.fragment === fragment) {
+                        subscription.deliver(availability)
+                    }
+                }
+            })
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.braintreepayments.api
+
+import android.os.SystemClock
+import com.braintreepayments.api.interfaces.BraintreeErrorListener
+import com.braintreepayments.api.interfaces.BraintreeResponseListener
+
+/**
+ * A Samsung Pay status and card info lookup shared by every [SamsungPay.isReadyToPay] caller that arrives for the
+ * same partner configuration while the lookup is in flight. Only the caller that starts the request talks to
+ * Samsung Pay; everyone else is answered from its result.
+ *
+ * A request normally stays registered until its Samsung Pay calls finish, even if every caller cancelled, so there is
+ * never more than one lookup per configuration. Samsung Pay does not always call back, though, so a request is
+ * unregistered early when the last caller leaves because its deadline passed, and is not joined once it is older than
+ * [MAX_AGE_MILLIS]. Later callers then start a fresh lookup instead of waiting on one that may never finish.
+ */
+internal class SamsungPayAvailabilityRequest private constructor(val key: String, val owner: Waiter) {
+
+    class Waiter(
+        val fragment: BraintreeFragment,
+        val listener: BraintreeResponseListener<SamsungPayAvailability>,
+        val errorListener: BraintreeErrorListener? = null,
+        val hasDeadline: Boolean = false
+    )
+
+    private val waiters = ArrayList<Waiter>()
+    private val startedAtMillis = SystemClock.elapsedRealtime()
+
+    companion object {
+        const val MAX_AGE_MILLIS = 30 * 1000L
+
+        private val inFlight = HashMap<String, SamsungPayAvailabilityRequest>()
+
+        /**
+         * Adds [waiter] to the in-flight request for [key], or registers a new request owned by [waiter] if there is
+         * none or the existing one is older than [MAX_AGE_MILLIS]. The owner is responsible for running the request.
+         */
+        fun join(key: String, waiter: Waiter): SamsungPayAvailabilityRequest {
+            synchronized(inFlight) {
+                val existing = inFlight[key]
+                if (existing != null && SystemClock.elapsedRealtime() - existing.startedAtMillis < MAX_AGE_MILLIS) {
+                    existing.waiters.add(waiter)
+                    return existing
+                }
+
+                val request = SamsungPayAvailabilityRequest(key, waiter)
+                request.waiters.add(waiter)
+                inFlight[key] = request
+                return request
+            }
+        }
+    }
+
+    /**
+     * Removes [waiter]; it will not be called back. The request stays registered until its lookup finishes, unless
+     * [waiter] was the last caller and left because its deadline passed.
+     */
+    fun leave(waiter: Waiter) {
+        synchronized(inFlight) {
+            if (waiters.remove(waiter) && waiters.isEmpty() && waiter.hasDeadline && inFlight[key] === this) {
+                inFlight.remove(key)
+            }
+        }
+    }
+
+    /**
+     * Delivers [availability] to every caller that joined this request.
+     */
+    fun complete(availability: SamsungPayAvailability) {
+        for (waiter in finish()) {
+            waiter.listener.onResponse(SamsungPayAvailability(availability.status, availability.reason))
+        }
+    }
+
+    /**
+     * Posts [error] once to each [BraintreeFragment] that joined this request, and to each caller's error listener.
+     */
+    fun fail(error: Exception) {
+        val notified = ArrayList<BraintreeFragment>()
+        for (waiter in finish()) {
+            if (notified.none { it === waiter.fragment }) {
+                notified.add(waiter.fragment)
+                waiter.fragment.postCallback(error)
+            }
+            waiter.errorListener?.onError(error)
+        }
+    }
+
+    /**
+     * Unregisters this request if every caller has left, in which case the remaining Samsung Pay requests can be
+     * skipped.
+     *
+     * @return true if the request was abandoned.
+     */
+    fun abandon(): Boolean {
+        synchronized(inFlight) {
+            if (waiters.isNotEmpty()) {
+                return false
+            }
+            finish()
+            return true
+        }
+    }
+
+    private fun finish(): List<Waiter> {
+        synchronized(inFlight) {
+            if (inFlight[key] === this) {
+                inFlight.remove(key)
+            }
+            val finished = ArrayList(waiters)
+            waiters.clear()
+            return finished
+        }
+    }
+}
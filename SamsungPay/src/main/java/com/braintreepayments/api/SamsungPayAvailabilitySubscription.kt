@@ -0,0 +1,43 @@
+package com.braintreepayments.api
+
+import android.app.Activity
+import com.braintreepayments.api.interfaces.BraintreeResponseListener
+
+/**
+ * Returned by [SamsungPay.observeAvailability]. Call [unsubscribe] when the Samsung Pay button is no longer shown; the
+ * subscription also ends on its own when the fragment's activity is destroyed.
+ */
+class SamsungPayAvailabilitySubscription internal constructor(
+    internal val fragment: BraintreeFragment,
+    internal val activity: Activity?,
+    private val listener: BraintreeResponseListener<SamsungPayAvailability>
+) {
+    private var lastStatus: Int? = null
+    private var lastReason = 0
+
+    @Volatile
+    var isActive = true
+        private set
+
+    /**
+     * Stops delivery to this subscription. Samsung Pay is no longer checked once the last subscription is removed.
+     */
+    fun unsubscribe() {
+        if (isActive) {
+            isActive = false
+            SamsungPayAvailabilityMonitor.remove(this)
+        }
+    }
+
+    // Delivers availability to the listener if it differs from the last value delivered.
+    internal fun deliver(availability: SamsungPayAvailability) {
+        synchronized(this) {
+            if (!isActive || (lastStatus == availability.status && lastReason == availability.reason)) {
+                return
+            }
+            lastStatus = availability.status
+            lastReason = availability.reason
+        }
+        listener.onResponse(SamsungPayAvailability(availability.status, availability.reason))
+    }
+}
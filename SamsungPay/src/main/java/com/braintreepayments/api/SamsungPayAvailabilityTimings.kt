@@ -0,0 +1,74 @@
+package com.braintreepayments.api
+
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Aggregated time-to-decision of the [SamsungPay.isReadyToPay] lookups that reached the card info check, split by
+ * whether the card info request was issued serially or speculatively
+ * (see [SamsungPay.setSpeculativeCardInfoLookupEnabled]).
+ */
+class SamsungPayAvailabilityTimings {
+    companion object {
+        private val serialCount = AtomicLong()
+        private val serialNanos = AtomicLong()
+        private val speculativeCount = AtomicLong()
+        private val speculativeNanos = AtomicLong()
+        private val deadlineExceededCount = AtomicLong()
+
+        /**
+         * @return the number of lookups that requested card info after the status request completed.
+         */
+        @JvmStatic
+        fun getSerialLookupCount(): Long = serialCount.get()
+
+        /**
+         * @return the total time in nanoseconds spent in lookups that requested card info serially.
+         */
+        @JvmStatic
+        fun getSerialLookupNanos(): Long = serialNanos.get()
+
+        /**
+         * @return the number of lookups that requested card info alongside the status request.
+         */
+        @JvmStatic
+        fun getSpeculativeLookupCount(): Long = speculativeCount.get()
+
+        /**
+         * @return the total time in nanoseconds spent in lookups that requested card info speculatively.
+         */
+        @JvmStatic
+        fun getSpeculativeLookupNanos(): Long = speculativeNanos.get()
+
+        /**
+         * @return the number of [SamsungPay.isReadyToPay] calls with a deadline that gave up waiting for Samsung Pay.
+         */
+        @JvmStatic
+        fun getDeadlineExceededCount(): Long = deadlineExceededCount.get()
+
+        /**
+         * Clears all recorded timings.
+         */
+        @JvmStatic
+        fun reset() {
+            serialCount.set(0)
+            serialNanos.set(0)
+            speculativeCount.set(0)
+            speculativeNanos.set(0)
+            deadlineExceededCount.set(0)
+        }
+
+        internal fun recordDeadlineExceeded() {
+            deadlineExceededCount.incrementAndGet()
+        }
+
+        internal fun record(speculative: Boolean, nanos: Long) {
+            if (speculative) {
+                speculativeCount.incrementAndGet()
+                speculativeNanos.addAndGet(nanos)
+            } else {
+                serialCount.incrementAndGet()
+                serialNanos.addAndGet(nanos)
+            }
+        }
+    }
+}
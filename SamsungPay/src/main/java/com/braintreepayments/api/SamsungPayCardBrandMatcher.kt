@@ -0,0 +1,54 @@
+package com.braintreepayments.api
+
+import com.samsung.android.sdk.samsungpay.v2.SpaySdk
+import com.samsung.android.sdk.samsungpay.v2.payment.CardInfo
+import java.util.*
+
+/**
+ * The card brands accepted by a [com.braintreepayments.api.models.SamsungPayConfiguration], compiled once into a
+ * bitmask over [SpaySdk.Brand] ordinals so wallet cards can be checked without allocating.
+ */
+internal class SamsungPayCardBrandMatcher(configurationBrands: Set<String>) {
+
+    private val mask: Long
+
+    /**
+     * The accepted brands, in [SpaySdk.Brand] order.
+     */
+    val acceptedBrands: List<SpaySdk.Brand>
+
+    init {
+        val brands = EnumSet.noneOf(SpaySdk.Brand::class.java)
+        for (braintreeAcceptedCardBrand in configurationBrands) {
+            when (braintreeAcceptedCardBrand.toLowerCase()) {
+                "visa" -> brands.add(SpaySdk.Brand.VISA)
+                "mastercard" -> brands.add(SpaySdk.Brand.MASTERCARD)
+                "discover" -> brands.add(SpaySdk.Brand.DISCOVER)
+                "american_express" -> brands.add(SpaySdk.Brand.AMERICANEXPRESS)
+            }
+        }
+
+        var compiledMask = 0L
+        for (brand in brands) {
+            compiledMask = compiledMask or (1L shl brand.ordinal)
+        }
+        mask = compiledMask
+        acceptedBrands = Collections.unmodifiableList(ArrayList(brands))
+    }
+
+    fun accepts(brand: SpaySdk.Brand?): Boolean {
+        return brand != null && (mask and (1L shl brand.ordinal)) != 0L
+    }
+
+    /**
+     * @return true as soon as one of [cards] has an accepted brand.
+     */
+    fun acceptsAny(cards: List<CardInfo>): Boolean {
+        for (i in cards.indices) {
+            if (accepts(cards[i].brand)) {
+                return true
+            }
+        }
+        return false
+    }
+}
@@ -0,0 +1,96 @@
+package com.braintreepayments.api
+
+import android.os.Bundle
+import com.samsung.android.sdk.samsungpay.v2.payment.CardInfo
+import com.samsung.android.sdk.samsungpay.v2.payment.PaymentManager
+
+/**
+ * Holds the result of a [PaymentManager.requestCardInfo] call until it is consumed, so the request can be issued
+ * before it is known whether the result will be needed. Results arriving after [discard] are dropped.
+ */
+internal class SamsungPayCardInfoLookup : PaymentManager.CardInfoListener {
+
+    private var hasResult = false
+    private var cardResponse: MutableList<CardInfo>? = null
+    private var errorCode: Int? = null
+    private var errorExtras: Bundle? = null
+    private var target: PaymentManager.CardInfoListener? = null
+    private var discarded = false
+    private var startNanos = SamsungPayMetricsRecorder.NOT_STARTED
+
+    /**
+     * Issues the card info request to [paymentManager], with this lookup receiving the result.
+     */
+    fun request(paymentManager: PaymentManager) {
+        startNanos = SamsungPayMetricsRecorder.start(SamsungPayMetrics.Operation.REQUEST_CARD_INFO)
+        paymentManager.requestCardInfo(Bundle(), this)
+    }
+
+    override fun onResult(cardResponse: MutableList<CardInfo>?) {
+        synchronized(this) {
+            if (discarded || hasResult) {
+                return
+            }
+            hasResult = true
+            this.cardResponse = cardResponse
+        }
+        SamsungPayMetricsRecorder.stop(SamsungPayMetrics.Operation.REQUEST_CARD_INFO,
+            SamsungPayMetrics.Outcome.SUCCESS, startNanos)
+        dispatch()
+    }
+
+    override fun onFailure(errorCode: Int, extras: Bundle?) {
+        synchronized(this) {
+            if (discarded || hasResult) {
+                return
+            }
+            hasResult = true
+            this.errorCode = errorCode
+            this.errorExtras = extras
+        }
+        SamsungPayMetricsRecorder.stop(SamsungPayMetrics.Operation.REQUEST_CARD_INFO,
+            SamsungPayMetrics.Outcome.FAILURE, startNanos)
+        dispatch()
+    }
+
+    /**
+     * Delivers the result to [listener] as soon as it is available.
+     */
+    fun deliverTo(listener: PaymentManager.CardInfoListener) {
+        synchronized(this) {
+            target = listener
+        }
+        dispatch()
+    }
+
+    /**
+     * Drops the result, whether or not it has already arrived.
+     */
+    fun discard() {
+        synchronized(this) {
+            discarded = true
+            target = null
+            cardResponse = null
+            errorExtras = null
+        }
+    }
+
+    private fun dispatch() {
+        val listener: PaymentManager.CardInfoListener
+        synchronized(this) {
+            if (discarded || !hasResult) {
+                return
+            }
+            listener = target ?: return
+            target = null
+            discarded = true
+        }
+
+        val code = errorCode
+        if (code != null) {
+            listener.onFailure(code, errorExtras)
+        } else {
+            listener.onResult(cardResponse)
+        }
+    }
+}
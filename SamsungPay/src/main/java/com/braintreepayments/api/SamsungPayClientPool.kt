@@ -0,0 +1,104 @@
+package com.braintreepayments.api
+
+import android.app.Activity
+import android.app.Application
+import android.os.Bundle
+import com.samsung.android.sdk.samsungpay.v2.SamsungPay
+import com.samsung.android.sdk.samsungpay.v2.payment.PaymentManager
+import java.util.WeakHashMap
+
+/**
+ * Reuses one [SamsungPay] and one [PaymentManager] per activity and [BraintreePartnerInfo], so repeated calls do not
+ * each set up a new Samsung Pay service connection. The pooled instances hold their activity as context, so entries
+ * keep the activity reachable until they are released; the pool relies on the activity lifecycle callbacks to
+ * release them when the activity is destroyed. Destroying an activity also releases the
+ * [SamsungPayPaymentSessionGuard] if the active payment was started from it.
+ */
+internal object SamsungPayClientPool {
+
+    private class Entry(val partnerInfo: BraintreePartnerInfo) {
+        var samsungPay: SamsungPay? = null
+        var paymentManager: PaymentManager? = null
+    }
+
+    private val entries = WeakHashMap<Activity, Entry>()
+    private val observedApplications = WeakHashMap<Application, Boolean>()
+
+    private val lifecycleCallbacks = object : Application.ActivityLifecycleCallbacks {
+        override fun onActivityDestroyed(activity: Activity) {
+            release(activity)
+            SamsungPayPaymentSessionGuard.release(activity)
+        }
+
+        override fun onActivityCreated(activity: Activity, savedInstanceState: Bundle?) {}
+        override fun onActivityStarted(activity: Activity) {}
+        override fun onActivityResumed(activity: Activity) {}
+        override fun onActivityPaused(activity: Activity) {}
+        override fun onActivityStopped(activity: Activity) {}
+        override fun onActivitySaveInstanceState(activity: Activity, outState: Bundle) {}
+    }
+
+    fun samsungPay(
+        activity: Activity,
+        partnerInfo: BraintreePartnerInfo,
+        factory: () -> SamsungPay
+    ): SamsungPay {
+        synchronized(this) {
+            val entry = entryFor(activity, partnerInfo)
+            return entry.samsungPay ?: factory().also { entry.samsungPay = it }
+        }
+    }
+
+    fun paymentManager(
+        activity: Activity,
+        partnerInfo: BraintreePartnerInfo,
+        factory: () -> PaymentManager
+    ): PaymentManager {
+        synchronized(this) {
+            val entry = entryFor(activity, partnerInfo)
+            return entry.paymentManager ?: factory().also { entry.paymentManager = it }
+        }
+    }
+
+    fun hasPaymentManager(activity: Activity, partnerInfo: BraintreePartnerInfo): Boolean {
+        synchronized(this) {
+            val entry = entries[activity]
+            return entry != null && entry.partnerInfo === partnerInfo && entry.paymentManager != null
+        }
+    }
+
+    fun release(activity: Activity) {
+        synchronized(this) {
+            entries.remove(activity)
+        }
+    }
+
+    /**
+     * Makes sure [activity]'s application reports destroyed activities to the pool, without pooling any instances.
+     */
+    fun observe(activity: Activity) {
+        synchronized(this) {
+            observeApplicationOf(activity)
+        }
+    }
+
+    private fun entryFor(activity: Activity, partnerInfo: BraintreePartnerInfo): Entry {
+        val existing = entries[activity]
+        if (existing != null && existing.partnerInfo === partnerInfo) {
+            return existing
+        }
+
+        observeApplicationOf(activity)
+
+        val entry = Entry(partnerInfo)
+        entries[activity] = entry
+        return entry
+    }
+
+    private fun observeApplicationOf(activity: Activity) {
+        val application = activity.application
+        if (application != null && observedApplications.put(application, true) == null) {
+            application.registerActivityLifecycleCallbacks(lifecycleCallbacks)
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.braintreepayments.api
+
+import android.os.Bundle
+import android.os.CancellationSignal
+import com.braintreepayments.api.interfaces.BraintreeErrorListener
+import com.braintreepayments.api.interfaces.BraintreeResponseListener
+import com.braintreepayments.api.interfaces.SamsungPayAsyncTransactionUpdateListener
+import com.samsung.android.sdk.samsungpay.v2.payment.CardInfo
+import com.samsung.android.sdk.samsungpay.v2.payment.CustomSheetPaymentInfo
+import com.samsung.android.sdk.samsungpay.v2.payment.PaymentManager
+import com.samsung.android.sdk.samsungpay.v2.payment.sheet.CustomSheet
+import kotlinx.coroutines.channels.Channel
+import kotlinx.coroutines.channels.ClosedSendChannelException
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.flow
+import kotlinx.coroutines.suspendCancellableCoroutine
+import java.util.concurrent.atomic.AtomicBoolean
+import kotlin.coroutines.resume
+import kotlin.coroutines.resumeWithException
+
+// The module only compiles against kotlinx-coroutines-core. Apps that call the extensions in this file add it
+// themselves; apps that only use the callback API never load these classes and do not need it.
+
+/**
+ * Events emitted by [SamsungPay.Companion.requestPaymentEvents], mirroring [SamsungPayAsyncTransactionUpdateListener].
+ */
+sealed class SamsungPayTransactionEvent {
+
+    /**
+     * The customer selected a different card. Change [customSheet] for the new card if needed, then call
+     * [SamsungPaySheetUpdate.complete] on [update] to send it to Samsung Pay. If the update is not completed before
+     * the card update deadline, the sheet is sent as it is.
+     */
+    class CardInfoUpdated(val cardInfo: CardInfo, val update: SamsungPaySheetUpdate) : SamsungPayTransactionEvent() {
+        val customSheet: CustomSheet
+            get() = update.customSheet
+    }
+
+    /**
+     * The Samsung Pay flow succeeded. This is the last event; the nonce is posted to the [BraintreeFragment].
+     */
+    class Success(val response: CustomSheetPaymentInfo, val extraPaymentData: Bundle) : SamsungPayTransactionEvent()
+}
+
+/**
+ * Suspending version of [SamsungPay.isReadyToPay].
+ *
+ * Cancelling the calling coroutine drops the result, and if no other caller is waiting for it, stops the lookup
+ * before its next request to Samsung Pay.
+ *
+ * @throws [com.braintreepayments.api.exceptions.SamsungPayException] when Samsung Pay reports an error. The error is
+ * also posted to the [BraintreeFragment].
+ */
+suspend fun SamsungPay.Companion.awaitReadyToPay(fragment: BraintreeFragment): SamsungPayAvailability {
+    return suspendCancellableCoroutine { continuation ->
+        val cancellationSignal = CancellationSignal()
+        continuation.invokeOnCancellation { cancellationSignal.cancel() }
+
+        isReadyToPay(
+            fragment,
+            cancellationSignal,
+            BraintreeResponseListener { availability -> continuation.resume(availability) },
+            BraintreeErrorListener { error -> continuation.resumeWithException(error) }
+        )
+    }
+}
+
+/**
+ * Suspending version of [SamsungPay.createPaymentManager]. Cancelling the calling coroutine drops the result.
+ */
+suspend fun SamsungPay.Companion.awaitPaymentManager(fragment: BraintreeFragment): PaymentManager {
+    return suspendCancellableCoroutine { continuation ->
+        createPaymentManager(fragment, BraintreeResponseListener { paymentManager ->
+            continuation.resume(paymentManager)
+        })
+    }
+}
+
+/**
+ * Suspending version of [SamsungPay.createPaymentInfo]. Cancelling the calling coroutine drops the result.
+ */
+suspend fun SamsungPay.Companion.awaitPaymentInfo(fragment: BraintreeFragment): CustomSheetPaymentInfo.Builder {
+    return suspendCancellableCoroutine { continuation ->
+        createPaymentInfo(fragment, BraintreeResponseListener { builder ->
+            continuation.resume(builder)
+        })
+    }
+}
+
+/**
+ * [Flow] version of [SamsungPay.requestPayment]. Each collection starts the Samsung Pay flow and emits a
+ * [SamsungPayTransactionEvent] for every [SamsungPayAsyncTransactionUpdateListener] callback. Card changes are emitted
+ * with their pending [SamsungPaySheetUpdate], which is completed for the collector if it is no longer collecting.
+ *
+ * The flow completes after [SamsungPayTransactionEvent.Success], when the customer cancels, or when Samsung Pay
+ * succeeds without a [CustomSheetPaymentInfo] to emit. It fails with a
+ * [com.braintreepayments.api.exceptions.SamsungPayException] when Samsung Pay reports an error or another payment
+ * sheet is already open. Nonces, errors and cancellations are still posted to the [BraintreeFragment]. Once the
+ * collector is cancelled no further events are delivered.
+ */
+@JvmOverloads
+fun SamsungPay.Companion.requestPaymentEvents(
+    fragment: BraintreeFragment,
+    paymentManager: PaymentManager,
+    customSheetPaymentInfo: CustomSheetPaymentInfo,
+    cardUpdateDeadlineMillis: Long = SamsungPay.DEFAULT_CARD_UPDATE_DEADLINE_MILLIS
+): Flow<SamsungPayTransactionEvent> = flow {
+    val channel = Channel<SamsungPayTransactionEvent>(Channel.UNLIMITED)
+    val active = AtomicBoolean(true)
+
+    val listener = object : SamsungPayAsyncTransactionUpdateListener {
+        override fun onCardInfoUpdated(cardInfo: CardInfo, update: SamsungPaySheetUpdate) {
+            if (!send(SamsungPayTransactionEvent.CardInfoUpdated(cardInfo, update))) {
+                update.complete()
+            }
+        }
+
+        override fun onSuccess(response: CustomSheetPaymentInfo, extraPaymentData: Bundle) {
+            send(SamsungPayTransactionEvent.Success(response, extraPaymentData))
+            channel.close()
+        }
+
+        private fun send(event: SamsungPayTransactionEvent): Boolean {
+            if (!active.get()) {
+                return false
+            }
+            return try {
+                channel.offer(event)
+            } catch (ignored: ClosedSendChannelException) {
+                false
+            }
+        }
+    }
+
+    requestPayment(fragment, paymentManager, customSheetPaymentInfo, listener, cardUpdateDeadlineMillis) { error ->
+        channel.close(error)
+    }
+
+    try {
+        for (event in channel) {
+            emit(event)
+        }
+    } finally {
+        active.set(false)
+        channel.cancel()
+    }
+}
@@ -2,6 +2,7 @@ package com.braintreepayments.api
 
 import android.os.Bundle
 import com.braintreepayments.api.exceptions.SamsungPayException
+import com.braintreepayments.api.interfaces.SamsungPayAsyncTransactionUpdateListener
 import com.braintreepayments.api.interfaces.SamsungPayCustomTransactionUpdateListener
 import com.braintreepayments.api.models.BraintreeRequestCodes
 import com.braintreepayments.api.models.SamsungPayNonce
@@ -10,40 +11,155 @@ import com.samsung.android.sdk.samsungpay.v2.payment.CardInfo
 import com.samsung.android.sdk.samsungpay.v2.payment.CustomSheetPaymentInfo
 import com.samsung.android.sdk.samsungpay.v2.payment.PaymentManager
 import com.samsung.android.sdk.samsungpay.v2.payment.sheet.CustomSheet
+import org.json.JSONException
 
 internal class SamsungPayCustomTransactionListenerWrapper(
     val fragment: BraintreeFragment,
     val paymentManager: PaymentManager,
-    val merchantCallback: SamsungPayCustomTransactionUpdateListener
+    val merchantCallback: SamsungPayAsyncTransactionUpdateListener,
+    // Called with the error when the flow fails, or with null when the customer cancels or Samsung Pay succeeds
+    // without a response.
+    val failureCallback: ((Exception?) -> Unit)? = null,
+    private val sheetUpdates: SamsungPaySheetUpdateCoalescer = SamsungPaySheetUpdateCoalescer(paymentManager, 0),
+    private val cardUpdateDeadlineMillis: Long = SamsungPay.DEFAULT_CARD_UPDATE_DEADLINE_MILLIS,
+    private val session: SamsungPayPaymentSession = SamsungPayPaymentSession()
 ) : PaymentManager.CustomSheetTransactionInfoListener {
 
+    // The card change whose sheet update is outstanding. Callbacks arrive on the main thread.
+    private var currentUpdate: SamsungPaySheetUpdate? = null
+
+    // Length and hash code of each credential already handled in this transaction.
+    private val successfulCredentials = HashSet<Long>(2)
+
     override fun onSuccess(response: CustomSheetPaymentInfo?, paymentCredential: String?, extraPaymentData: Bundle?) {
-        if (paymentCredential != null) {
-            fragment.postCallback(SamsungPayNonce.fromPaymentData(paymentCredential))
-            fragment.sendAnalyticsEvent("samsung-pay.request-payment.success")
+        currentUpdate?.supersede()
+        sheetUpdates.cancel()
+        if (paymentCredential == null) {
+            onNonceFailure(JSONException("Samsung Pay did not return a payment credential"))
+            return
+        }
+
+        if (!firstSuccessFor(paymentCredential)) {
+            SamsungPayTransactionStats.recordDuplicateSuccess()
+            SamsungPayAnalytics.send(fragment, SamsungPayAnalyticsEvent.REQUEST_PAYMENT_DUPLICATE_SUCCESS)
+            return
         }
+        session.moveTo(SamsungPayPaymentPhase.AUTHORIZING)
 
+        // Parsing the credential is kept off the main thread so it does not compete with the sheet dismissing. The
+        // nonce is always posted before the merchant callback runs.
+        SamsungPayExecutors.background.execute {
+            val nonce = try {
+                SamsungPayNonce.fromPaymentData(paymentCredential)
+            } catch (e: Exception) {
+                SamsungPayExecutors.runOnMain { onNonceFailure(e) }
+                return@execute
+            }
+
+            SamsungPayExecutors.runOnMain {
+                fragment.postCallback(nonce)
+                SamsungPayAnalytics.send(fragment, SamsungPayAnalyticsEvent.REQUEST_PAYMENT_SUCCESS)
+                session.moveTo(SamsungPayPaymentPhase.TOKENIZED)
+                notifyMerchantOfSuccess(response, extraPaymentData)
+            }
+        }
+    }
+
+    // Samsung Pay can deliver onSuccess more than once for a transaction. Each credential is only turned into a
+    // nonce once, so a repeat never causes a second server-side transaction.
+    private fun firstSuccessFor(paymentCredential: String): Boolean {
+        val key = (paymentCredential.length.toLong() shl 32) or (paymentCredential.hashCode().toLong() and 0xFFFFFFFFL)
+        synchronized(successfulCredentials) {
+            return successfulCredentials.add(key)
+        }
+    }
+
+    // Without a response there is nothing to pass to the merchant, but the flow is still over, so callers waiting
+    // on failureCallback are told it finished.
+    private fun notifyMerchantOfSuccess(response: CustomSheetPaymentInfo?, extraPaymentData: Bundle?) {
         if (response != null) {
             val bundle = extraPaymentData ?: Bundle()
             merchantCallback.onSuccess(response, bundle)
+        } else {
+            failureCallback?.invoke(null)
         }
+    }
 
+    private fun onNonceFailure(error: Exception) {
+        fragment.postCallback(error)
+        SamsungPayAnalytics.send(fragment, SamsungPayAnalyticsEvent.REQUEST_PAYMENT_FAILED)
+        session.moveTo(SamsungPayPaymentPhase.FAILED)
+        failureCallback?.invoke(error)
     }
 
     override fun onFailure(errorCode: Int, extras: Bundle?) {
+        // A failure after the transaction has finished must not undo the result the merchant was already given.
+        if (session.phase.isFinal) {
+            SamsungPayTransactionStats.recordLateFailure()
+            return
+        }
+        currentUpdate?.supersede()
+        sheetUpdates.cancel()
         if (errorCode == SpaySdk.ERROR_USER_CANCELED) {
             fragment.postCancelCallback(BraintreeRequestCodes.SAMSUNG_PAY)
-            fragment.sendAnalyticsEvent("samsung-pay.request-payment.user-canceled")
+            SamsungPayAnalytics.send(fragment, SamsungPayAnalyticsEvent.REQUEST_PAYMENT_USER_CANCELED)
+            session.moveTo(SamsungPayPaymentPhase.CANCELED)
+            failureCallback?.invoke(null)
         } else {
-            fragment.postCallback(SamsungPayException(errorCode, extras))
-            fragment.sendAnalyticsEvent("samsung-pay.request-payment.failed")
+            val exception = SamsungPayException(errorCode, extras)
+            fragment.postCallback(exception)
+            SamsungPayAnalytics.send(fragment, SamsungPayAnalyticsEvent.REQUEST_PAYMENT_FAILED)
+            session.moveTo(SamsungPayPaymentPhase.FAILED)
+            failureCallback?.invoke(exception)
         }
     }
 
     override fun onCardInfoUpdated(cardInfo: CardInfo?, customSheet: CustomSheet?) {
         if (cardInfo != null && customSheet != null) {
-            merchantCallback.onCardInfoUpdated(cardInfo, customSheet)
-            paymentManager.updateSheet(customSheet)
+            currentUpdate?.supersede()
+            val update = SamsungPaySheetUpdate(customSheet) { completed, timedOut ->
+                SamsungPayExecutors.runOnMain { sendSheet(completed, timedOut) }
+            }
+            currentUpdate = update
+            session.moveTo(SamsungPayPaymentPhase.CARD_UPDATING)
+            SamsungPayExecutors.postOnMainDelayed(update.deadline, cardUpdateDeadlineMillis)
+            merchantCallback.onCardInfoUpdated(cardInfo, update)
         }
     }
+
+    private fun sendSheet(update: SamsungPaySheetUpdate, timedOut: Boolean) {
+        SamsungPayExecutors.removeFromMain(update.deadline)
+        if (currentUpdate !== update) {
+            return
+        }
+        if (timedOut) {
+            SamsungPayTransactionStats.recordCardUpdateDeadlineExceeded()
+            SamsungPayAnalytics.send(fragment, SamsungPayAnalyticsEvent.CARD_INFO_UPDATED_TIMED_OUT)
+        }
+        sheetUpdates.submit(update.customSheet)
+        session.moveTo(SamsungPayPaymentPhase.SHEET_SHOWN)
+    }
+}
+
+/**
+ * Adapts a [SamsungPayCustomTransactionUpdateListener], which updates the sheet before returning.
+ */
+internal class SamsungPaySynchronousTransactionUpdateListener(
+    private val listener: SamsungPayCustomTransactionUpdateListener
+) : SamsungPayAsyncTransactionUpdateListener {
+
+    override fun onCardInfoUpdated(cardInfo: CardInfo, update: SamsungPaySheetUpdate) {
+        listener.onCardInfoUpdated(cardInfo, update.customSheet)
+        update.complete()
+    }
+
+    override fun onSuccess(response: CustomSheetPaymentInfo, extraPaymentData: Bundle) {
+        listener.onSuccess(response, extraPaymentData)
+    }
+
+    // Adapters of the same listener are equal, so repeated requestPayment calls are recognised as the same payment.
+    override fun equals(other: Any?): Boolean =
+        other is SamsungPaySynchronousTransactionUpdateListener && other.listener == listener
+
+    override fun hashCode(): Int = listener.hashCode()
 }
@@ -0,0 +1,51 @@
+package com.braintreepayments.api
+
+import android.os.Handler
+import android.os.Looper
+import java.util.concurrent.Executor
+import java.util.concurrent.Executors
+
+/**
+ * Threads used by the Samsung Pay module for work that should stay off the main thread.
+ */
+internal object SamsungPayExecutors {
+
+    private val mainHandler by lazy { Handler(Looper.getMainLooper()) }
+
+    private val defaultBackground: Executor by lazy {
+        Executors.newSingleThreadExecutor { runnable ->
+            val thread = Thread(runnable, "braintree-samsung-pay")
+            thread.isDaemon = true
+            thread
+        }
+    }
+
+    @Volatile
+    private var customBackground: Executor? = null
+
+    val background: Executor
+        get() = customBackground ?: defaultBackground
+
+    fun setBackground(executor: Executor?) {
+        customBackground = executor
+    }
+
+    fun postOnMainDelayed(runnable: Runnable, delayMillis: Long) {
+        mainHandler.postDelayed(runnable, delayMillis)
+    }
+
+    fun removeFromMain(runnable: Runnable) {
+        mainHandler.removeCallbacks(runnable)
+    }
+
+    /**
+     * Runs [block] immediately when called on the main thread, otherwise posts it to the main thread.
+     */
+    fun runOnMain(block: () -> Unit) {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            block()
+        } else {
+            mainHandler.post { block() }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.braintreepayments.api
+
+import java.util.concurrent.atomic.AtomicLongArray
+
+/**
+ * [SamsungPayMetrics] that keeps call counts and timings in memory, for reading from debug screens or for periodic
+ * export. All counters are lock-free and safe to read from any thread.
+ */
+class SamsungPayInMemoryMetrics : SamsungPayMetrics {
+
+    private val operationCount = SamsungPayMetrics.Operation.values().size
+    private val outcomeCount = SamsungPayMetrics.Outcome.values().size
+
+    private val calls = AtomicLongArray(operationCount)
+    private val completions = AtomicLongArray(operationCount * outcomeCount)
+    private val totalNanos = AtomicLongArray(operationCount * outcomeCount)
+    private val maxNanos = AtomicLongArray(operationCount)
+
+    override fun increment(operation: SamsungPayMetrics.Operation) {
+        calls.incrementAndGet(operation.ordinal)
+    }
+
+    override fun recordNanos(operation: SamsungPayMetrics.Operation, outcome: SamsungPayMetrics.Outcome, nanos: Long) {
+        val index = index(operation, outcome)
+        completions.incrementAndGet(index)
+        totalNanos.addAndGet(index, nanos)
+
+        var max = maxNanos.get(operation.ordinal)
+        while (nanos > max && !maxNanos.compareAndSet(operation.ordinal, max, nanos)) {
+            max = maxNanos.get(operation.ordinal)
+        }
+    }
+
+    /**
+     * @return the number of times [operation] was started.
+     */
+    fun getCallCount(operation: SamsungPayMetrics.Operation): Long = calls.get(operation.ordinal)
+
+    /**
+     * @return the number of times [operation] finished with [outcome].
+     */
+    fun getCount(operation: SamsungPayMetrics.Operation, outcome: SamsungPayMetrics.Outcome): Long =
+        completions.get(index(operation, outcome))
+
+    /**
+     * @return the total time in nanoseconds spent in [operation] calls that finished with [outcome].
+     */
+    fun getTotalNanos(operation: SamsungPayMetrics.Operation, outcome: SamsungPayMetrics.Outcome): Long =
+        totalNanos.get(index(operation, outcome))
+
+    /**
+     * @return the longest time in nanoseconds any [operation] call took, whatever its outcome.
+     */
+    fun getMaxNanos(operation: SamsungPayMetrics.Operation): Long = maxNanos.get(operation.ordinal)
+
+    /**
+     * Clears all counters and timings.
+     */
+    fun reset() {
+        for (i in 0 until calls.length()) {
+            calls.set(i, 0)
+            maxNanos.set(i, 0)
+        }
+        for (i in 0 until completions.length()) {
+            completions.set(i, 0)
+            totalNanos.set(i, 0)
+        }
+    }
+
+    private fun index(operation: SamsungPayMetrics.Operation, outcome: SamsungPayMetrics.Outcome): Int =
+        operation.ordinal * outcomeCount + outcome.ordinal
+}
@@ -0,0 +1,38 @@
+package com.braintreepayments.api
+
+/**
+ * Receives counters and timers for the Samsung Pay entry points, for example to forward them to an APM tool. Set
+ * with [SamsungPay.setMetrics]; [SamsungPayInMemoryMetrics] is a ready-made implementation.
+ *
+ * Methods are called on whichever thread the operation runs on, usually the main thread, so implementations must be
+ * thread-safe and should return quickly. Operations and outcomes are enums and durations are primitive, so nothing
+ * is allocated to report them.
+ */
+interface SamsungPayMetrics {
+
+    enum class Operation {
+        IS_READY_TO_PAY,
+        REQUEST_CARD_INFO,
+        GET_PARTNER_INFO,
+        CREATE_PAYMENT_INFO,
+        CREATE_PAYMENT_MANAGER,
+        REQUEST_PAYMENT
+    }
+
+    enum class Outcome {
+        SUCCESS,
+        FAILURE,
+        CANCELED
+    }
+
+    /**
+     * Called when [operation] starts.
+     */
+    fun increment(operation: Operation)
+
+    /**
+     * Called when [operation] finishes with [outcome], [nanos] after it started. Operations that are abandoned, for
+     * example an [SamsungPay.isReadyToPay] call whose cancellation signal was cancelled, are counted but not timed.
+     */
+    fun recordNanos(operation: Operation, outcome: Outcome, nanos: Long)
+}
@@ -0,0 +1,54 @@
+package com.braintreepayments.api
+
+import android.os.SystemClock
+
+/**
+ * Reports to the [SamsungPayMetrics] set with [SamsungPay.setMetrics]. While none is set, nothing is read from the
+ * clock and callers can skip wrapping their callbacks by checking for [NOT_STARTED].
+ */
+internal object SamsungPayMetricsRecorder {
+
+    const val NOT_STARTED = -1L
+
+    @Volatile
+    private var metrics: SamsungPayMetrics = NoOpSamsungPayMetrics
+
+    fun setMetrics(metrics: SamsungPayMetrics?) {
+        this.metrics = metrics ?: NoOpSamsungPayMetrics
+    }
+
+    /**
+     * Counts [operation] and returns its start time, or [NOT_STARTED] when metrics are disabled.
+     */
+    fun start(operation: SamsungPayMetrics.Operation): Long {
+        val metrics = metrics
+        if (metrics === NoOpSamsungPayMetrics) {
+            return NOT_STARTED
+        }
+        metrics.increment(operation)
+        return SystemClock.elapsedRealtimeNanos()
+    }
+
+    /**
+     * Counts [operation] without timing it.
+     */
+    fun increment(operation: SamsungPayMetrics.Operation) {
+        metrics.increment(operation)
+    }
+
+    fun stop(operation: SamsungPayMetrics.Operation, outcome: SamsungPayMetrics.Outcome, startNanos: Long) {
+        if (startNanos != NOT_STARTED) {
+            record(operation, outcome, SystemClock.elapsedRealtimeNanos() - startNanos)
+        }
+    }
+
+    fun record(operation: SamsungPayMetrics.Operation, outcome: SamsungPayMetrics.Outcome, nanos: Long) {
+        metrics.recordNanos(operation, outcome, nanos)
+    }
+}
+
+internal object NoOpSamsungPayMetrics : SamsungPayMetrics {
+    override fun increment(operation: SamsungPayMetrics.Operation) {}
+
+    override fun recordNanos(operation: SamsungPayMetrics.Operation, outcome: SamsungPayMetrics.Outcome, nanos: Long) {}
+}
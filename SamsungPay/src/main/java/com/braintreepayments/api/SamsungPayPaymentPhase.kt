@@ -0,0 +1,30 @@
+package com.braintreepayments.api
+
+/**
+ * Phases of a payment started with [SamsungPay.requestPayment]. [TOKENIZED], [FAILED] and [CANCELED] are final.
+ */
+enum class SamsungPayPaymentPhase {
+    /** [SamsungPay.requestPayment] was called and the sheet is being requested from Samsung Pay. */
+    SHEET_OPENING,
+
+    /** Samsung Pay accepted the sheet request, or the sheet was updated after a card change. */
+    SHEET_SHOWN,
+
+    /** The customer selected a different card and the sheet update has not been sent yet. */
+    CARD_UPDATING,
+
+    /** The customer authorized the payment and the payment credential is being turned into a nonce. */
+    AUTHORIZING,
+
+    /** The nonce was posted to the [BraintreeFragment]. */
+    TOKENIZED,
+
+    /** Samsung Pay reported an error, or no nonce could be produced from its response. */
+    FAILED,
+
+    /** The customer closed the sheet. */
+    CANCELED;
+
+    val isFinal: Boolean
+        get() = this == TOKENIZED || this == FAILED || this == CANCELED
+}
@@ -0,0 +1,59 @@
+package com.braintreepayments.api
+
+import android.os.SystemClock
+import com.braintreepayments.api.SamsungPayPaymentPhase.*
+
+/**
+ * State machine for one payment started with [SamsungPay.requestPayment]. Starts in [SHEET_OPENING] and records when
+ * each phase is entered. Transitions that are not allowed from the current phase are counted and otherwise ignored,
+ * since they come from Samsung Pay callbacks that cannot be refused.
+ */
+internal class SamsungPayPaymentSession(private val onFinished: ((SamsungPayPaymentTimings) -> Unit)? = null) {
+
+    private val phases = ArrayList<SamsungPayPaymentPhase>(8)
+    private val timestamps = ArrayList<Long>(8)
+    private var rejectedTransitionCount = 0
+
+    init {
+        record(SHEET_OPENING)
+    }
+
+    val phase: SamsungPayPaymentPhase
+        @Synchronized get() = phases[phases.size - 1]
+
+    /**
+     * @return false if [next] is not allowed from the current phase, in which case nothing changes.
+     */
+    fun moveTo(next: SamsungPayPaymentPhase): Boolean {
+        val timings: SamsungPayPaymentTimings
+        synchronized(this) {
+            if (!isAllowed(phase, next)) {
+                rejectedTransitionCount++
+                return false
+            }
+            record(next)
+            if (!next.isFinal) {
+                return true
+            }
+            timings = SamsungPayPaymentTimings(phases.toTypedArray(), timestamps.toLongArray(), rejectedTransitionCount)
+        }
+        onFinished?.invoke(timings)
+        return true
+    }
+
+    private fun record(next: SamsungPayPaymentPhase) {
+        phases.add(next)
+        timestamps.add(SystemClock.elapsedRealtimeNanos())
+    }
+
+    companion object {
+        fun isAllowed(from: SamsungPayPaymentPhase, to: SamsungPayPaymentPhase): Boolean {
+            return when (from) {
+                SHEET_OPENING, CARD_UPDATING -> to != SHEET_OPENING && to != TOKENIZED
+                SHEET_SHOWN -> to != SHEET_OPENING && to != SHEET_SHOWN && to != TOKENIZED
+                AUTHORIZING -> to == TOKENIZED || to == FAILED
+                TOKENIZED, FAILED, CANCELED -> false
+            }
+        }
+    }
+}
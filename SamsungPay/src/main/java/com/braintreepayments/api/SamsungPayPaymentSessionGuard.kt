@@ -0,0 +1,84 @@
+package com.braintreepayments.api
+
+import android.app.Activity
+import android.os.SystemClock
+import com.samsung.android.sdk.samsungpay.v2.payment.PaymentManager
+import java.lang.ref.WeakReference
+import java.util.concurrent.atomic.AtomicReference
+
+/**
+ * Allows one Samsung Pay payment sheet per process. A payment holds the guard from [SamsungPay.requestPayment] until
+ * its [SamsungPayPaymentSession] reaches a final phase, whether tokenized, failed or canceled; the guard checks the
+ * phase itself, so a payment that finishes does not need to release it explicitly.
+ *
+ * Samsung Pay does not always call back, so the guard is also released when the activity that started the payment is
+ * destroyed, and a payment older than [STALE_AFTER_MILLIS] no longer blocks new ones.
+ */
+internal object SamsungPayPaymentSessionGuard {
+
+    const val STALE_AFTER_MILLIS = 10 * 60 * 1000L
+
+    enum class Result {
+        /** No payment was active; the caller now holds the guard and should start the sheet. */
+        ACQUIRED,
+
+        /** The same payment manager and listener already have a sheet open; the caller is attached to it. */
+        JOINED,
+
+        /** A different payment has a sheet open. */
+        REJECTED
+    }
+
+    private class ActivePayment(
+        val activity: WeakReference<Activity>?,
+        val paymentManager: PaymentManager,
+        val listener: Any,
+        val session: SamsungPayPaymentSession,
+        val acquiredAtMillis: Long
+    )
+
+    private val active = AtomicReference<ActivePayment?>()
+
+    fun acquire(
+        activity: Activity?,
+        paymentManager: PaymentManager,
+        listener: Any,
+        session: SamsungPayPaymentSession
+    ): Result {
+        val now = SystemClock.elapsedRealtime()
+        val candidate = ActivePayment(activity?.let { WeakReference(it) }, paymentManager, listener, session, now)
+        while (true) {
+            val current = active.get()
+            if (current != null && !current.session.phase.isFinal && now - current.acquiredAtMillis < STALE_AFTER_MILLIS) {
+                return if (current.paymentManager === paymentManager && current.listener == listener) {
+                    Result.JOINED
+                } else {
+                    Result.REJECTED
+                }
+            }
+            if (active.compareAndSet(current, candidate)) {
+                if (activity != null) {
+                    SamsungPayClientPool.observe(activity)
+                }
+                return Result.ACQUIRED
+            }
+        }
+    }
+
+    /**
+     * Releases the guard if the active payment was started from [activity].
+     */
+    fun release(activity: Activity) {
+        val current = active.get() ?: return
+        if (current.activity?.get() === activity) {
+            active.compareAndSet(current, null)
+        }
+    }
+
+    /**
+     * Forgets the active payment. Only for tests.
+     */
+    fun reset() {
+        active.set(null)
+    }
+}
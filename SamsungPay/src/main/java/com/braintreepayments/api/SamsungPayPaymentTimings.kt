@@ -0,0 +1,57 @@
+package com.braintreepayments.api
+
+/**
+ * Where the time went in one payment started with [SamsungPay.requestPayment], delivered to the listener set with
+ * [SamsungPay.setPaymentTimingsListener] once the payment reaches a final [SamsungPayPaymentPhase].
+ *
+ * Timestamps come from [android.os.SystemClock.elapsedRealtimeNanos].
+ */
+class SamsungPayPaymentTimings internal constructor(
+    private val phases: Array<SamsungPayPaymentPhase>,
+    private val timestamps: LongArray,
+    /**
+     * The number of transitions that were ignored because they are not allowed from the phase the payment was in, for
+     * example a second success callback after the nonce was posted.
+     */
+    val rejectedTransitionCount: Int
+) {
+    /**
+     * The phase the payment ended in.
+     */
+    val finalPhase: SamsungPayPaymentPhase
+        get() = phases[phases.size - 1]
+
+    /**
+     * @return the number of phases entered, including [SamsungPayPaymentPhase.SHEET_OPENING] and the final phase.
+     */
+    fun getTransitionCount(): Int = phases.size
+
+    /**
+     * @return the phase entered by transition [index].
+     */
+    fun getPhase(index: Int): SamsungPayPaymentPhase = phases[index]
+
+    /**
+     * @return when transition [index] happened, in nanoseconds.
+     */
+    fun getTimestampNanos(index: Int): Long = timestamps[index]
+
+    /**
+     * @return the time from [SamsungPay.requestPayment] to the final phase, in nanoseconds.
+     */
+    fun getTotalNanos(): Long = timestamps[timestamps.size - 1] - timestamps[0]
+
+    /**
+     * @return the total time spent in [phase], in nanoseconds. A phase entered more than once, such as
+     * [SamsungPayPaymentPhase.CARD_UPDATING], is summed. Final phases always report 0.
+     */
+    fun getPhaseNanos(phase: SamsungPayPaymentPhase): Long {
+        var nanos = 0L
+        for (i in 0 until phases.size - 1) {
+            if (phases[i] == phase) {
+                nanos += timestamps[i + 1] - timestamps[i]
+            }
+        }
+        return nanos
+    }
+}
@@ -0,0 +1,25 @@
+package com.braintreepayments.api
+
+/**
+ * Returned by [SamsungPay.prewarm]. Each flag tells whether that part of the checkout path was already prepared
+ * before the call, i.e. how much work the call did not have to do.
+ */
+class SamsungPayPrewarmResult internal constructor(
+    val isConfigurationWarm: Boolean,
+    val isPartnerInfoWarm: Boolean,
+    val isPaymentManagerWarm: Boolean,
+    val isAvailabilityWarm: Boolean,
+    val availability: SamsungPayAvailability
+) {
+    /**
+     * @return the number of steps, out of four, that were already warm.
+     */
+    fun getWarmStepCount(): Int {
+        var count = 0
+        if (isConfigurationWarm) count++
+        if (isPartnerInfoWarm) count++
+        if (isPaymentManagerWarm) count++
+        if (isAvailabilityWarm) count++
+        return count
+    }
+}
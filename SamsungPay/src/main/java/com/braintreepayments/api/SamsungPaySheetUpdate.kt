@@ -0,0 +1,49 @@
+package com.braintreepayments.api
+
+import com.braintreepayments.api.interfaces.SamsungPayAsyncTransactionUpdateListener
+import com.samsung.android.sdk.samsungpay.v2.payment.sheet.CustomSheet
+import java.util.concurrent.atomic.AtomicBoolean
+
+/**
+ * Pending sheet update for one card change, passed to [SamsungPayAsyncTransactionUpdateListener.onCardInfoUpdated].
+ *
+ * The update completes exactly once: when [complete] is called, when its deadline passes, or when it is superseded
+ * by a newer card change or the end of the flow. Only the first of these has an effect.
+ */
+class SamsungPaySheetUpdate internal constructor(
+    val customSheet: CustomSheet,
+    private val onComplete: (SamsungPaySheetUpdate, Boolean) -> Unit
+) {
+    private val completed = AtomicBoolean()
+
+    internal val deadline = Runnable {
+        if (completed.compareAndSet(false, true)) {
+            onComplete(this, true)
+        }
+    }
+
+    /**
+     * True once the sheet has been sent to Samsung Pay or the update is no longer needed.
+     */
+    val isCompleted: Boolean
+        get() = completed.get()
+
+    /**
+     * Sends [customSheet] to Samsung Pay. Can be called from any thread.
+     *
+     * @return false if the update had already completed, in which case nothing is sent.
+     */
+    fun complete(): Boolean {
+        if (!completed.compareAndSet(false, true)) {
+            return false
+        }
+        onComplete(this, false)
+        return true
+    }
+
+    // Completes without sending anything.
+    internal fun supersede() {
+        completed.set(true)
+        SamsungPayExecutors.removeFromMain(deadline)
+    }
+}
@@ -0,0 +1,69 @@
+package com.braintreepayments.api
+
+import com.samsung.android.sdk.samsungpay.v2.payment.PaymentManager
+import com.samsung.android.sdk.samsungpay.v2.payment.sheet.CustomSheet
+
+/**
+ * Limits [PaymentManager.updateSheet] calls to one per [windowMillis]. The first update is sent immediately and opens
+ * a window; updates submitted while the window is open replace each other, and the latest one is sent when the window
+ * closes. The last submitted sheet is therefore always sent, at most [windowMillis] late. A window of 0 sends every
+ * update immediately.
+ */
+internal class SamsungPaySheetUpdateCoalescer(
+    private val paymentManager: PaymentManager,
+    private val windowMillis: Long
+) {
+    private var windowOpen = false
+    private var pending: CustomSheet? = null
+    private var canceled = false
+
+    private val closeWindow = Runnable { onWindowClosed() }
+
+    fun submit(customSheet: CustomSheet) {
+        if (windowMillis <= 0) {
+            paymentManager.updateSheet(customSheet)
+            return
+        }
+
+        synchronized(this) {
+            if (canceled) {
+                return
+            }
+            if (windowOpen) {
+                if (pending != null) {
+                    SamsungPayTransactionStats.recordSkippedSheetUpdate()
+                }
+                pending = customSheet
+                return
+            }
+            windowOpen = true
+        }
+
+        paymentManager.updateSheet(customSheet)
+        SamsungPayExecutors.postOnMainDelayed(closeWindow, windowMillis)
+    }
+
+    /**
+     * Drops any pending update, for when the sheet has closed.
+     */
+    fun cancel() {
+        synchronized(this) {
+            canceled = true
+            pending = null
+            windowOpen = false
+        }
+        SamsungPayExecutors.removeFromMain(closeWindow)
+    }
+
+    private fun onWindowClosed() {
+        val sheet = synchronized(this) {
+            val sheet = pending
+            pending = null
+            windowOpen = sheet != null
+            sheet
+        } ?: return
+
+        paymentManager.updateSheet(sheet)
+        SamsungPayExecutors.postOnMainDelayed(closeWindow, windowMillis)
+    }
+}
@@ -0,0 +1,70 @@
+package com.braintreepayments.api
+
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Counters for the Samsung Pay transactions started with [SamsungPay.requestPayment].
+ */
+class SamsungPayTransactionStats {
+    companion object {
+        private val duplicateSuccessCount = AtomicLong()
+        private val skippedSheetUpdateCount = AtomicLong()
+        private val cardUpdateDeadlineExceededCount = AtomicLong()
+        private val lateFailureCount = AtomicLong()
+
+        /**
+         * @return the number of repeated success callbacks Samsung Pay delivered for a transaction that had already
+         * succeeded with the same payment credential. These are dropped without posting another nonce.
+         */
+        @JvmStatic
+        fun getDuplicateSuccessCount(): Long = duplicateSuccessCount.get()
+
+        /**
+         * @return the number of sheet updates that were replaced by a newer one before being sent to Samsung Pay (see
+         * [SamsungPay.setSheetUpdateCoalescingWindow]).
+         */
+        @JvmStatic
+        fun getSkippedSheetUpdateCount(): Long = skippedSheetUpdateCount.get()
+
+        /**
+         * @return the number of card changes where the merchant did not complete the [SamsungPaySheetUpdate] before its
+         * deadline, so the sheet was sent as it was.
+         */
+        @JvmStatic
+        fun getCardUpdateDeadlineExceededCount(): Long = cardUpdateDeadlineExceededCount.get()
+
+        /**
+         * @return the number of failure callbacks Samsung Pay delivered after the transaction had already finished.
+         * These are dropped without posting an error or cancel.
+         */
+        @JvmStatic
+        fun getLateFailureCount(): Long = lateFailureCount.get()
+
+        /**
+         * Clears all counters.
+         */
+        @JvmStatic
+        fun reset() {
+            duplicateSuccessCount.set(0)
+            skippedSheetUpdateCount.set(0)
+            cardUpdateDeadlineExceededCount.set(0)
+            lateFailureCount.set(0)
+        }
+
+        internal fun recordDuplicateSuccess() {
+            duplicateSuccessCount.incrementAndGet()
+        }
+
+        internal fun recordSkippedSheetUpdate() {
+            skippedSheetUpdateCount.incrementAndGet()
+        }
+
+        internal fun recordCardUpdateDeadlineExceeded() {
+            cardUpdateDeadlineExceededCount.incrementAndGet()
+        }
+
+        internal fun recordLateFailure() {
+            lateFailureCount.incrementAndGet()
+        }
+    }
+}
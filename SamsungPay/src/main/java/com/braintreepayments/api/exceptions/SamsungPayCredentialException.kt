@@ -0,0 +1,18 @@
+package com.braintreepayments.api.exceptions
+
+import org.json.JSONException
+
+/**
+ * Thrown when a Samsung Pay payment credential is rejected before being fully parsed because it exceeds the
+ * parser's limits. Extends [JSONException], so callers handling malformed credentials also handle these.
+ */
+class SamsungPayCredentialException(val reason: Reason, message: String) : JSONException(message) {
+
+    enum class Reason {
+        /** The credential has more characters than the parser accepts. */
+        PAYLOAD_TOO_LARGE,
+
+        /** Objects and arrays in the credential, including string-encoded payloads, are nested too deeply. */
+        NESTING_TOO_DEEP
+    }
+}
@@ -0,0 +1,22 @@
+package com.braintreepayments.api.interfaces
+
+import android.os.Bundle
+import com.braintreepayments.api.SamsungPaySheetUpdate
+import com.samsung.android.sdk.samsungpay.v2.payment.CardInfo
+import com.samsung.android.sdk.samsungpay.v2.payment.CustomSheetPaymentInfo
+
+/**
+ * Variant of [SamsungPayCustomTransactionUpdateListener] for merchants that need to do asynchronous work, such as a
+ * network lookup, before updating the sheet for a newly selected card.
+ */
+interface SamsungPayAsyncTransactionUpdateListener {
+    /**
+     * Called when the customer selects a different card. Update [SamsungPaySheetUpdate.customSheet] and call
+     * [SamsungPaySheetUpdate.complete], from any thread, before the deadline passed to
+     * [com.braintreepayments.api.SamsungPay.requestPayment]. Otherwise the sheet is sent to Samsung Pay as it is when
+     * the deadline passes.
+     */
+    fun onCardInfoUpdated(cardInfo: CardInfo, update: SamsungPaySheetUpdate)
+
+    fun onSuccess(response: CustomSheetPaymentInfo, extraPaymentData: Bundle)
+}
@@ -0,0 +1,78 @@
+package com.braintreepayments.api.models
+
+import android.os.Parcel
+import org.json.JSONObject
+
+/**
+ * Compact form of [BinData] kept by [SamsungPayNonce] until the bin data is first read. The six tri-state fields are
+ * packed 2 bits each into [triStates], in [TRI_STATE_FIELDS] order.
+ */
+internal class SamsungPayBinDataFields(
+    val triStates: Int,
+    val issuingBank: String?,
+    val countryOfIssuance: String?,
+    val productId: String?
+) {
+    companion object {
+        val TRI_STATE_FIELDS = listOf("prepaid", "healthcare", "debit", "durbinRegulated", "commercial", "payroll")
+
+        private const val TRI_STATE_BITS = 2
+        private const val TRI_STATE_MASK = 0b11
+        private const val UNKNOWN = 0
+        private const val YES = 1
+        private const val NO = 2
+
+        fun from(binData: BinData): SamsungPayBinDataFields {
+            val values = arrayOf(binData.prepaid, binData.healthcare, binData.debit, binData.durbinRegulated,
+                binData.commercial, binData.payroll)
+            var triStates = 0
+            for (i in values.indices) {
+                triStates = withTriState(triStates, i, values[i])
+            }
+            return SamsungPayBinDataFields(triStates, binData.issuingBank, binData.countryOfIssuance,
+                binData.productId)
+        }
+
+        fun readFromParcel(parcel: Parcel): SamsungPayBinDataFields {
+            return SamsungPayBinDataFields(parcel.readInt(), parcel.readString(), parcel.readString(),
+                parcel.readString())
+        }
+
+        /**
+         * Sets the tri-state field at [index] in [triStates] from [value]. `YES` and `NO` are matched case-insensitively;
+         * anything else is unknown.
+         */
+        fun withTriState(triStates: Int, index: Int, value: String?): Int {
+            val state = when {
+                value.equals(BinData.YES, ignoreCase = true) -> YES
+                value.equals(BinData.NO, ignoreCase = true) -> NO
+                else -> UNKNOWN
+            }
+            val shift = index * TRI_STATE_BITS
+            return (triStates and (TRI_STATE_MASK shl shift).inv()) or (state shl shift)
+        }
+    }
+
+    fun writeToParcel(parcel: Parcel) {
+        parcel.writeInt(triStates)
+        parcel.writeString(issuingBank)
+        parcel.writeString(countryOfIssuance)
+        parcel.writeString(productId)
+    }
+
+    fun toBinData(): BinData {
+        val json = JSONObject()
+        for (i in TRI_STATE_FIELDS.indices) {
+            val state = when ((triStates shr (i * TRI_STATE_BITS)) and TRI_STATE_MASK) {
+                YES -> BinData.YES
+                NO -> BinData.NO
+                else -> BinData.UNKNOWN
+            }
+            json.put(TRI_STATE_FIELDS[i], state)
+        }
+        json.put("issuingBank", issuingBank)
+        json.put("countryOfIssuance", countryOfIssuance)
+        json.put("productId", productId)
+        return BinData.fromJson(json)
+    }
+}
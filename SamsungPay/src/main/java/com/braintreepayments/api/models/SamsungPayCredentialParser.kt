@@ -0,0 +1,227 @@
+package com.braintreepayments.api.models
+
+import android.util.JsonReader
+import android.util.JsonToken
+import com.braintreepayments.api.exceptions.SamsungPayCredentialException
+import org.json.JSONException
+import java.io.IOException
+import java.io.StringReader
+
+/**
+ * Streaming parser for the payment credential returned by Samsung Pay.
+ *
+ * The credential wraps Braintree's tokenize response as a JSON string in its `data` member. That response may in
+ * turn hold its own `data` member as another JSON string. Each payload is read once with a [JsonReader], keeping only
+ * the nonce, card brand, last 4 and bin data; everything else is skipped without being materialized.
+ *
+ * Parsing is linear in the credential length. Credentials longer than [MAX_CREDENTIAL_LENGTH] are rejected before
+ * reading, and nesting deeper than [MAX_DEPTH], counted across string-encoded payloads, is rejected as soon as it is
+ * reached, both with a [SamsungPayCredentialException].
+ *
+ * Samsung tokenizes against a newer GraphQL API version than the Braintree SDK expects, so the bin data tri-state
+ * fields come back as `YES`, `NO` and `UNKNOWN` instead of [BinData.YES], [BinData.NO] and [BinData.UNKNOWN]. They are
+ * mapped field by field as they are read, into [SamsungPayBinDataFields].
+ */
+internal object SamsungPayCredentialParser {
+
+    // A real credential is about 1.5 KB and 8 levels deep.
+    const val MAX_CREDENTIAL_LENGTH = 64 * 1024
+    const val MAX_DEPTH = 32
+
+    class Result(
+        val nonce: String,
+        val cardType: String,
+        val sourceCardLast4: String,
+        val binData: SamsungPayBinDataFields?
+    )
+
+    @Throws(JSONException::class)
+    fun parse(paymentCredential: String): Result {
+        if (paymentCredential.length > MAX_CREDENTIAL_LENGTH) {
+            throw SamsungPayCredentialException(SamsungPayCredentialException.Reason.PAYLOAD_TOO_LARGE,
+                "Payment credential has ${paymentCredential.length} characters, limit is $MAX_CREDENTIAL_LENGTH")
+        }
+
+        val parse = Parse()
+        try {
+            parse.read(paymentCredential) { reader -> parse.readCredential(reader) }
+        } catch (e: IOException) {
+            throw jsonException(e)
+        } catch (e: IllegalStateException) {
+            throw jsonException(e)
+        } catch (e: NumberFormatException) {
+            throw jsonException(e)
+        }
+
+        return Result(
+            parse.nonce ?: throw JSONException("No value for id"),
+            parse.cardType ?: throw JSONException("No value for brand"),
+            parse.sourceCardLast4 ?: throw JSONException("No value for last4"),
+            parse.binData
+        )
+    }
+
+    private fun jsonException(cause: Exception): JSONException {
+        val exception = JSONException(cause.message)
+        exception.initCause(cause)
+        return exception
+    }
+
+    private class Parse {
+        var nonce: String? = null
+        var cardType: String? = null
+        var sourceCardLast4: String? = null
+        var binData: SamsungPayBinDataFields? = null
+
+        private var depth = 0
+
+        fun read(json: String, block: (JsonReader) -> Unit) {
+            JsonReader(StringReader(json)).use(block)
+        }
+
+        // { "data": "<tokenize response>", ... }
+        fun readCredential(reader: JsonReader) {
+            readObject(reader) { name ->
+                if (name == "data") {
+                    readNested(reader) { readTokenizeResponse(it) }
+                } else {
+                    skip(reader)
+                }
+            }
+        }
+
+        // { "data": { "tokenizeSamsungPayCard": { "paymentMethod": { ... } } }, "extensions": { ... } }
+        private fun readTokenizeResponse(reader: JsonReader) {
+            readObject(reader) { name ->
+                if (name == "data") {
+                    readNested(reader) { data ->
+                        readMember(data, "tokenizeSamsungPayCard") { tokenize ->
+                            readMember(tokenize, "paymentMethod") { readPaymentMethod(it) }
+                        }
+                    }
+                } else {
+                    skip(reader)
+                }
+            }
+        }
+
+        private fun readPaymentMethod(reader: JsonReader) {
+            readObject(reader) { name ->
+                when (name) {
+                    "id" -> nonce = nextValueOrNull(reader)
+                    "details" -> readDetails(reader)
+                    else -> skip(reader)
+                }
+            }
+        }
+
+        private fun readDetails(reader: JsonReader) {
+            readObject(reader) { name ->
+                when (name) {
+                    "brand" -> cardType = nextValueOrNull(reader)
+                    "last4" -> sourceCardLast4 = nextValueOrNull(reader)
+                    "binData" -> binData = readBinData(reader)
+                    else -> skip(reader)
+                }
+            }
+        }
+
+        private fun readBinData(reader: JsonReader): SamsungPayBinDataFields? {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                skip(reader)
+                return null
+            }
+
+            var triStates = 0
+            var issuingBank: String? = null
+            var countryOfIssuance: String? = null
+            var productId: String? = null
+            readObject(reader) { name ->
+                val triStateIndex = SamsungPayBinDataFields.TRI_STATE_FIELDS.indexOf(name)
+                when {
+                    triStateIndex >= 0 -> triStates =
+                        SamsungPayBinDataFields.withTriState(triStates, triStateIndex, nextValueOrNull(reader))
+                    name == "issuingBank" -> issuingBank = nextValueOrNull(reader)
+                    name == "countryOfIssuance" -> countryOfIssuance = nextValueOrNull(reader)
+                    name == "productId" -> productId = nextValueOrNull(reader)
+                    else -> skip(reader)
+                }
+            }
+            return SamsungPayBinDataFields(triStates, issuingBank, countryOfIssuance, productId)
+        }
+
+        // Reads a member that is either an object or a JSON string holding one.
+        private fun readNested(reader: JsonReader, block: (JsonReader) -> Unit) {
+            when (reader.peek()) {
+                JsonToken.STRING -> read(reader.nextString(), block)
+                JsonToken.BEGIN_OBJECT -> block(reader)
+                else -> throw JSONException("Expected a JSON object but was ${reader.peek()}")
+            }
+        }
+
+        private fun readMember(reader: JsonReader, member: String, block: (JsonReader) -> Unit) {
+            readObject(reader) { name ->
+                if (name == member) {
+                    block(reader)
+                } else {
+                    skip(reader)
+                }
+            }
+        }
+
+        private inline fun readObject(reader: JsonReader, onMember: (String) -> Unit) {
+            enter()
+            reader.beginObject()
+            while (reader.hasNext()) {
+                onMember(reader.nextName())
+            }
+            reader.endObject()
+            depth--
+        }
+
+        // Reads a string or number member; anything else is skipped.
+        private fun nextValueOrNull(reader: JsonReader): String? {
+            return when (reader.peek()) {
+                JsonToken.STRING, JsonToken.NUMBER -> reader.nextString()
+                else -> {
+                    skip(reader)
+                    null
+                }
+            }
+        }
+
+        // Skips the next value without recursion, enforcing the depth limit on the way.
+        private fun skip(reader: JsonReader) {
+            val start = depth
+            do {
+                when (reader.peek()) {
+                    JsonToken.BEGIN_OBJECT -> {
+                        enter()
+                        reader.beginObject()
+                    }
+                    JsonToken.BEGIN_ARRAY -> {
+                        enter()
+                        reader.beginArray()
+                    }
+                    JsonToken.END_OBJECT -> {
+                        reader.endObject()
+                        depth--
+                    }
+                    JsonToken.END_ARRAY -> {
+                        reader.endArray()
+                        depth--
+                    }
+                    JsonToken.NAME -> reader.nextName()
+                    else -> reader.skipValue()
+                }
+            } while (depth > start)
+        }
+
+        private fun enter() {
+            if (++depth > MAX_DEPTH) {
+                throw SamsungPayCredentialException(SamsungPayCredentialException.Reason.NESTING_TOO_DEEP,
+                    "Payment credential is nested deeper than $MAX_DEPTH levels")
+            }
+        }
+    }
+}
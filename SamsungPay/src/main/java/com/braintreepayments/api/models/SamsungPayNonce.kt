@@ -2,19 +2,48 @@ package com.braintreepayments.api.models
 
 import android.os.Parcel
 import android.os.Parcelable
-import android.util.Log
-import org.json.JSONObject
 
 /**
  * {@link PaymentMethodNonce} representing a Samsung Pay card.
  * @see PaymentMethodNonce
  */
 public class SamsungPayNonce() : PaymentMethodNonce() {
-    var binData: BinData? = null
+    // Bin data as parsed or unparceled, until binData is first read.
+    @Volatile
+    private var pendingBinData: SamsungPayBinDataFields? = null
+    @Volatile
+    private var decodedBinData: BinData? = null
+
+    /**
+     * Bin data of the card. It is decoded on first access.
+     */
+    var binData: BinData?
+        get() {
+            if (pendingBinData == null) {
+                return decodedBinData
+            }
+            synchronized(this) {
+                val pending = pendingBinData
+                if (pending != null) {
+                    decodedBinData = pending.toBinData()
+                    pendingBinData = null
+                }
+                return decodedBinData
+            }
+        }
+        set(value) {
+            synchronized(this) {
+                decodedBinData = value
+                pendingBinData = null
+            }
+        }
+
     var cardType: String? = null
     var sourceCardLast4: String? = null
 
     companion object {
+        private const val PARCEL_VERSION = 1
+
         @JvmField
         val CREATOR = object : Parcelable.Creator<SamsungPayNonce> {
             override fun createFromParcel(parcel: Parcel) = SamsungPayNonce(parcel)
@@ -22,48 +51,63 @@ public class SamsungPayNonce() : PaymentMethodNonce() {
         }
         fun fromPaymentData(data: String) : SamsungPayNonce {
             val nonce = SamsungPayNonce()
-            nonce.from(JSONObject(data))
+            nonce.from(SamsungPayCredentialParser.parse(data))
             return nonce
         }
     }
 
     // Can't override fromJson and use that because the super implementation does not support
     // Tokenizer's JSON schema
-    private fun from(json: JSONObject?) {
-        val braintreeDataJson = JSONObject(JSONObject(json?.getString("data")).getString("data"))
-        val paymentMethod = braintreeDataJson.getJSONObject("tokenizeSamsungPayCard")
-            .getJSONObject("paymentMethod")
-        val details = paymentMethod.getJSONObject("details")
-
-        mNonce = paymentMethod.getString("id")
-        cardType = details.getString("brand")
-        sourceCardLast4 = details.getString("last4")
+    private fun from(credential: SamsungPayCredentialParser.Result) {
+        mNonce = credential.nonce
+        cardType = credential.cardType
+        sourceCardLast4 = credential.sourceCardLast4
         mDescription = "ending in $sourceCardLast4"
-
-        // This is a hack to get around the mismatch between the GraphQL API version used in
-        // the Braintree Android SDK and the API version used by Samsung to tokenize. Samsung's
-        // response has `UNKNOWN` whereas the Braintree SDK expects `Unknown`.
-        var formattedBinData = details.getJSONObject("binData")
-                .toString()
-                .replace("UNKNOWN", "Unknown")
-                .replace("YES", "Yes")
-                .replace("NO", "No")
-        binData = BinData.fromJson(JSONObject(formattedBinData))
+        pendingBinData = credential.binData
     }
 
     override fun getTypeLabel(): String {
         return "Samsung Pay"
     }
 
+    // Parcel layout, version 1:
+    //   int     version
+    //   String  nonce, description
+    //   byte    default
+    //   String  card type, source card last 4
+    //   byte    1 if bin data follows, otherwise 0
+    //   int     bin data tri-state fields, 2 bits each (see SamsungPayBinDataFields)
+    //   String  issuing bank, country of issuance, product id
     private constructor(parcel: Parcel) : this() {
+        val version = parcel.readInt()
+        if (version != PARCEL_VERSION) {
+            throw IllegalStateException("Unsupported SamsungPayNonce parcel version $version")
+        }
+
+        mNonce = parcel.readString()
+        mDescription = parcel.readString()
+        mDefault = parcel.readByte() != 0.toByte()
         cardType = parcel.readString()
         sourceCardLast4 = parcel.readString()
-        binData = parcel.readParcelable<BinData>(BinData::class.java.classLoader)
+        if (parcel.readByte() != 0.toByte()) {
+            pendingBinData = SamsungPayBinDataFields.readFromParcel(parcel)
+        }
     }
 
     override fun writeToParcel(parcel: Parcel, flags: Int) {
+        parcel.writeInt(PARCEL_VERSION)
+        parcel.writeString(mNonce)
+        parcel.writeString(mDescription)
+        parcel.writeByte(if (mDefault) 1 else 0)
         parcel.writeString(cardType)
         parcel.writeString(sourceCardLast4)
-        parcel.writeParcelable(binData, flags)
-   }
-}
\ No newline at end of file
+
+        val binData = synchronized(this) { pendingBinData ?: decodedBinData?.let { SamsungPayBinDataFields.from(it) } }
+        if (binData == null) {
+            parcel.writeByte(0)
+        } else {
+            parcel.writeByte(1)
+            binData.writeToParcel(parcel)
+        }
+    }
+}
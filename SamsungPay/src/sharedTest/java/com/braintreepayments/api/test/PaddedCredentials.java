@@ -0,0 +1,46 @@
+package com.braintreepayments.api.test;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+public class PaddedCredentials {
+
+    public enum Padding { STRING, MEMBERS, ARRAYS }
+
+    // Builds a Samsung Pay credential of about size characters, padded with members the parser has to skip.
+    public static String credential(int size, Padding padding) throws JSONException {
+        String paymentMethod = "{\"tokenizeSamsungPayCard\": {\"paymentMethod\": {\"id\": \"a-nonce\", \"details\": "
+                + "{\"brand\": \"Visa\", \"last4\": \"1111\", \"binData\": {\"debit\": \"YES\"}}}}}";
+        StringBuilder tokenizeResponse = new StringBuilder("{\"data\": ").append(paymentMethod)
+                .append(", \"extensions\": ");
+
+        // String encoding escapes the quotes, so leave room for the growth.
+        int target = (int) (size * 0.7);
+        switch (padding) {
+            case STRING:
+                tokenizeResponse.append('"');
+                while (tokenizeResponse.length() < target) {
+                    tokenizeResponse.append("padding ");
+                }
+                tokenizeResponse.append('"');
+                break;
+            case MEMBERS:
+                tokenizeResponse.append("{\"m0\": 0");
+                for (int i = 1; tokenizeResponse.length() < target; i++) {
+                    tokenizeResponse.append(", \"m").append(i).append("\": ").append(i);
+                }
+                tokenizeResponse.append('}');
+                break;
+            case ARRAYS:
+                tokenizeResponse.append("[[{\"a\": [1, 2]}]");
+                while (tokenizeResponse.length() < target) {
+                    tokenizeResponse.append(", [{\"a\": [1, 2]}]");
+                }
+                tokenizeResponse.append(']');
+                break;
+        }
+        tokenizeResponse.append('}');
+
+        return new JSONObject().put("data", tokenizeResponse.toString()).toString();
+    }
+}
@@ -0,0 +1,64 @@
+package com.braintreepayments.api;
+
+import com.braintreepayments.api.models.Configuration;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import static com.braintreepayments.api.test.FixturesHelper.stringFromFixture;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNotSame;
+import static junit.framework.Assert.assertSame;
+
+@RunWith(RobolectricTestRunner.class)
+public class BraintreePartnerInfoUnitTest {
+
+    private Configuration mConfiguration;
+
+    @Before
+    public void setup() throws JSONException {
+        mConfiguration = Configuration.fromJson(stringFromFixture("configuration/with_samsung_pay.json"));
+    }
+
+    @Test
+    public void from_withSameConfigurationAndSession_returnsSameInstance() {
+        BraintreePartnerInfo first = BraintreePartnerInfo.from(mConfiguration, "session-id", "custom");
+        BraintreePartnerInfo second = BraintreePartnerInfo.from(mConfiguration, "session-id", "custom");
+
+        assertSame(first, second);
+    }
+
+    @Test
+    public void from_whenSessionIdChanges_buildsNewInstance() throws JSONException {
+        BraintreePartnerInfo first = BraintreePartnerInfo.from(mConfiguration, "session-id", "custom");
+        BraintreePartnerInfo second = BraintreePartnerInfo.from(mConfiguration, "other-session-id", "custom");
+
+        assertNotSame(first, second);
+        assertEquals("other-session-id", new JSONObject(second.getAdditionalData())
+                .getJSONObject("clientSdkMetadata")
+                .getString("sessionId"));
+    }
+
+    @Test
+    public void from_whenIntegrationTypeChanges_buildsNewInstance() {
+        BraintreePartnerInfo first = BraintreePartnerInfo.from(mConfiguration, "session-id", "custom");
+        BraintreePartnerInfo second = BraintreePartnerInfo.from(mConfiguration, "session-id", "dropin");
+
+        assertNotSame(first, second);
+    }
+
+    @Test
+    public void from_whenConfigurationChanges_buildsNewInstance() throws JSONException {
+        BraintreePartnerInfo first = BraintreePartnerInfo.from(mConfiguration, "session-id", "custom");
+        Configuration refreshedConfiguration =
+                Configuration.fromJson(stringFromFixture("configuration/with_samsung_pay.json"));
+        BraintreePartnerInfo second = BraintreePartnerInfo.from(refreshedConfiguration, "session-id", "custom");
+
+        assertNotSame(first, second);
+        assertSame(refreshedConfiguration.getSamsungPay(), second.getConfiguration());
+    }
+}
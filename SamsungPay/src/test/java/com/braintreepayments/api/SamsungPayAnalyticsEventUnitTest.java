@@ -0,0 +1,45 @@
+package com.braintreepayments.api;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class SamsungPayAnalyticsEventUnitTest {
+
+    @Test
+    public void idsAndWireNamesAreUnique() {
+        Set<Integer> ids = new HashSet<>();
+        Set<String> wireNames = new HashSet<>();
+
+        for (SamsungPayAnalyticsEvent event : SamsungPayAnalyticsEvent.values()) {
+            assertTrue(event + " reuses id " + event.getId(), ids.add(event.getId()));
+            assertTrue(event + " reuses " + event.getWireName(), wireNames.add(event.getWireName()));
+            assertTrue(event.getWireName(), event.getWireName().matches("samsung-pay\\.[a-z-]+(\\.[a-z-]+)?"));
+        }
+    }
+
+    @Test
+    public void fromWireName_returnsTheEvent() {
+        for (SamsungPayAnalyticsEvent event : SamsungPayAnalyticsEvent.values()) {
+            assertSame(event, SamsungPayAnalyticsEvent.Companion.fromWireName(event.getWireName()));
+        }
+        assertNull(SamsungPayAnalyticsEvent.Companion.fromWireName("samsung-pay.unknown"));
+    }
+
+    @Test
+    public void wireNamesMatchWhatSinksAlreadyReceive() {
+        assertEquals("samsung-pay.is-ready-to-pay.device-not-supported",
+                SamsungPayAnalyticsEvent.IS_READY_TO_PAY_DEVICE_NOT_SUPPORTED.getWireName());
+        assertEquals("samsung-pay.request-payment.success",
+                SamsungPayAnalyticsEvent.REQUEST_PAYMENT_SUCCESS.getWireName());
+    }
+}
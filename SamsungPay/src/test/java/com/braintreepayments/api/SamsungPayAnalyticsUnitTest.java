@@ -0,0 +1,168 @@
+package com.braintreepayments.api;
+
+import android.os.Looper;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import kotlin.jvm.functions.Function1;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertSame;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@RunWith(RobolectricTestRunner.class)
+public class SamsungPayAnalyticsUnitTest {
+
+    private BraintreeFragment mBraintreeFragment;
+    private List<Runnable> mQueued;
+    private boolean mFragmentAdded;
+
+    @Before
+    public void setup() {
+        mBraintreeFragment = new MockFragmentBuilder().build();
+        mQueued = new ArrayList<>();
+        mFragmentAdded = true;
+        SamsungPayAnalyticsStats.reset();
+        SamsungPayAnalytics.INSTANCE.setQueueForTesting(new SamsungPayAnalyticsQueue(4, 3, 1000, new Executor() {
+            @Override
+            public void execute(Runnable runnable) {
+                mQueued.add(runnable);
+            }
+        }, new Function1<BraintreeFragment, Boolean>() {
+            @Override
+            public Boolean invoke(BraintreeFragment fragment) {
+                return mFragmentAdded;
+            }
+        }));
+    }
+
+    @After
+    public void teardown() {
+        ShadowLooper.idleMainLooper(1000, TimeUnit.MILLISECONDS);
+        runQueued();
+        SamsungPayAnalytics.INSTANCE.setQueueForTesting(null);
+    }
+
+    @Test
+    public void send_flushesOneBatchOnTheExecutorOnceBatchSizeIsReached() {
+        SamsungPayAnalytics.INSTANCE.send(mBraintreeFragment, SamsungPayAnalyticsEvent.PREWARM_SUCCESS);
+        SamsungPayAnalytics.INSTANCE.send(mBraintreeFragment, SamsungPayAnalyticsEvent.GOTO_UPDATE_PAGE);
+        assertEquals(0, mQueued.size());
+
+        SamsungPayAnalytics.INSTANCE.send(mBraintreeFragment, SamsungPayAnalyticsEvent.ACTIVATE_SAMSUNG_PAY);
+        assertEquals(1, mQueued.size());
+        verify(mBraintreeFragment, never()).sendAnalyticsEvent(anyString());
+
+        runQueued();
+
+        InOrder inOrder = inOrder(mBraintreeFragment);
+        inOrder.verify(mBraintreeFragment).sendAnalyticsEvent(SamsungPayAnalyticsEvent.PREWARM_SUCCESS.getWireName());
+        inOrder.verify(mBraintreeFragment).sendAnalyticsEvent(SamsungPayAnalyticsEvent.GOTO_UPDATE_PAGE.getWireName());
+        inOrder.verify(mBraintreeFragment).sendAnalyticsEvent(SamsungPayAnalyticsEvent.ACTIVATE_SAMSUNG_PAY.getWireName());
+        assertEquals(1, SamsungPayAnalyticsStats.getBatchCount());
+        assertEquals(3, SamsungPayAnalyticsStats.getSentEventCount());
+        assertEquals(1, SamsungPayAnalyticsStats.getSentEventCount(SamsungPayAnalyticsEvent.GOTO_UPDATE_PAGE));
+        assertEquals(0, SamsungPayAnalyticsStats.getQueueDepth());
+    }
+
+    @Test
+    public void send_flushesAfterTheIntervalWhenTheBatchIsNotFull() {
+        SamsungPayAnalytics.INSTANCE.send(mBraintreeFragment, SamsungPayAnalyticsEvent.PREWARM_SUCCESS);
+        ShadowLooper.idleMainLooper(999, TimeUnit.MILLISECONDS);
+        assertEquals(0, mQueued.size());
+
+        ShadowLooper.idleMainLooper(1, TimeUnit.MILLISECONDS);
+        assertEquals(1, mQueued.size());
+        runQueued();
+
+        verify(mBraintreeFragment).sendAnalyticsEvent(SamsungPayAnalyticsEvent.PREWARM_SUCCESS.getWireName());
+        assertEquals(1000, SamsungPayAnalyticsStats.getMaxQueueDelayMillis());
+    }
+
+    @Test
+    public void send_whenQueueIsFull_dropsNewEvents() {
+        SamsungPayAnalyticsEvent[] events = SamsungPayAnalyticsEvent.values();
+        for (int i = 0; i < 6; i++) {
+            SamsungPayAnalytics.INSTANCE.send(mBraintreeFragment, events[i]);
+        }
+
+        assertEquals(4, SamsungPayAnalyticsStats.getQueueDepth());
+        assertEquals(2, SamsungPayAnalyticsStats.getDroppedEventCount());
+
+        runQueued();
+
+        verify(mBraintreeFragment, times(4)).sendAnalyticsEvent(anyString());
+        verify(mBraintreeFragment, never()).sendAnalyticsEvent(events[4].getWireName());
+        verify(mBraintreeFragment, never()).sendAnalyticsEvent(events[5].getWireName());
+    }
+
+    @Test
+    public void send_deliversTheBatchOnTheMainThreadInOnePost() throws InterruptedException {
+        final List<Thread> deliveryThreads = new ArrayList<>();
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) {
+                deliveryThreads.add(Thread.currentThread());
+                return null;
+            }
+        }).when(mBraintreeFragment).sendAnalyticsEvent(anyString());
+
+        SamsungPayAnalytics.INSTANCE.send(mBraintreeFragment, SamsungPayAnalyticsEvent.PREWARM_SUCCESS);
+        SamsungPayAnalytics.INSTANCE.send(mBraintreeFragment, SamsungPayAnalyticsEvent.GOTO_UPDATE_PAGE);
+        SamsungPayAnalytics.INSTANCE.send(mBraintreeFragment, SamsungPayAnalyticsEvent.ACTIVATE_SAMSUNG_PAY);
+
+        Thread background = new Thread(mQueued.remove(0));
+        background.start();
+        background.join();
+
+        verify(mBraintreeFragment, never()).sendAnalyticsEvent(anyString());
+        assertEquals(0, SamsungPayAnalyticsStats.getQueueDepth());
+
+        ShadowLooper.runMainLooperOneTask();
+
+        assertEquals(3, deliveryThreads.size());
+        for (Thread thread : deliveryThreads) {
+            assertSame(Looper.getMainLooper().getThread(), thread);
+        }
+        assertEquals(1, SamsungPayAnalyticsStats.getBatchCount());
+    }
+
+    @Test
+    public void send_whenFragmentIsNoLongerAdded_dropsItsEvents() {
+        SamsungPayAnalytics.INSTANCE.send(mBraintreeFragment, SamsungPayAnalyticsEvent.PREWARM_SUCCESS);
+        SamsungPayAnalytics.INSTANCE.send(mBraintreeFragment, SamsungPayAnalyticsEvent.GOTO_UPDATE_PAGE);
+        SamsungPayAnalytics.INSTANCE.send(mBraintreeFragment, SamsungPayAnalyticsEvent.ACTIVATE_SAMSUNG_PAY);
+        mFragmentAdded = false;
+
+        runQueued();
+
+        verify(mBraintreeFragment, never()).sendAnalyticsEvent(anyString());
+        assertEquals(0, SamsungPayAnalyticsStats.getSentEventCount());
+        assertEquals(3, SamsungPayAnalyticsStats.getDroppedEventCount());
+        assertEquals(0, SamsungPayAnalyticsStats.getBatchCount());
+    }
+
+    private void runQueued() {
+        while (!mQueued.isEmpty()) {
+            mQueued.remove(0).run();
+        }
+    }
+}
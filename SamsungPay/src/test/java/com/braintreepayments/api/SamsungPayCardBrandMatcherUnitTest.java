@@ -0,0 +1,62 @@
+package com.braintreepayments.api;
+
+import com.samsung.android.sdk.samsungpay.v2.SpaySdk;
+import com.samsung.android.sdk.samsungpay.v2.payment.CardInfo;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class SamsungPayCardBrandMatcherUnitTest {
+
+    @Test
+    public void acceptedBrands_mapsConfigurationBrandsCaseInsensitively() {
+        SamsungPayCardBrandMatcher matcher = new SamsungPayCardBrandMatcher(
+                new HashSet<>(Arrays.asList("VISA", "mastercard", "Discover", "american_express", "jcb")));
+
+        List<SpaySdk.Brand> brands = matcher.getAcceptedBrands();
+
+        assertEquals(4, brands.size());
+        assertTrue(brands.contains(SpaySdk.Brand.VISA));
+        assertTrue(brands.contains(SpaySdk.Brand.MASTERCARD));
+        assertTrue(brands.contains(SpaySdk.Brand.DISCOVER));
+        assertTrue(brands.contains(SpaySdk.Brand.AMERICANEXPRESS));
+    }
+
+    @Test
+    public void acceptsAny_whenOneCardHasAcceptedBrand_returnsTrue() {
+        SamsungPayCardBrandMatcher matcher = new SamsungPayCardBrandMatcher(new HashSet<>(Arrays.asList("visa")));
+        List<CardInfo> cards = new ArrayList<>();
+        cards.add(new CardInfo.Builder().setBrand(SpaySdk.Brand.MASTERCARD).build());
+        cards.add(new CardInfo.Builder().setBrand(SpaySdk.Brand.VISA).build());
+
+        assertTrue(matcher.acceptsAny(cards));
+    }
+
+    @Test
+    public void acceptsAny_whenNoCardHasAcceptedBrand_returnsFalse() {
+        SamsungPayCardBrandMatcher matcher = new SamsungPayCardBrandMatcher(new HashSet<>(Arrays.asList("visa")));
+        List<CardInfo> cards = new ArrayList<>();
+        cards.add(new CardInfo.Builder().setBrand(SpaySdk.Brand.MASTERCARD).build());
+        cards.add(new CardInfo.Builder().build());
+
+        assertFalse(matcher.acceptsAny(cards));
+    }
+
+    @Test
+    public void acceptsAny_withNoCards_returnsFalse() {
+        SamsungPayCardBrandMatcher matcher = new SamsungPayCardBrandMatcher(new HashSet<>(Arrays.asList("visa")));
+
+        assertFalse(matcher.acceptsAny(new ArrayList<CardInfo>()));
+    }
+}
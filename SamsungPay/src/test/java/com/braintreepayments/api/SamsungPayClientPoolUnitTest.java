@@ -0,0 +1,102 @@
+package com.braintreepayments.api;
+
+import android.app.Activity;
+
+import com.braintreepayments.api.models.Configuration;
+import com.samsung.android.sdk.samsungpay.v2.payment.PaymentManager;
+
+import org.json.JSONException;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.android.controller.ActivityController;
+
+import kotlin.jvm.functions.Function0;
+
+import static com.braintreepayments.api.test.FixturesHelper.stringFromFixture;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNotSame;
+import static junit.framework.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+
+@RunWith(RobolectricTestRunner.class)
+public class SamsungPayClientPoolUnitTest {
+
+    private Configuration mConfiguration;
+    private int mCreatedCount;
+
+    @Before
+    public void setup() throws JSONException {
+        mConfiguration = Configuration.fromJson(stringFromFixture("configuration/with_samsung_pay.json"));
+        mCreatedCount = 0;
+    }
+
+    @Test
+    public void paymentManager_withSameActivityAndPartnerInfo_reusesInstance() {
+        Activity activity = Robolectric.buildActivity(Activity.class).create().get();
+        BraintreePartnerInfo partnerInfo = BraintreePartnerInfo.from(mConfiguration, "session-id", "custom");
+
+        PaymentManager first = SamsungPayClientPool.INSTANCE.paymentManager(activity, partnerInfo, paymentManagerFactory());
+        PaymentManager second = SamsungPayClientPool.INSTANCE.paymentManager(activity, partnerInfo, paymentManagerFactory());
+
+        assertSame(first, second);
+        assertEquals(1, mCreatedCount);
+    }
+
+    @Test
+    public void paymentManager_whenPartnerInfoChanges_createsNewInstance() {
+        Activity activity = Robolectric.buildActivity(Activity.class).create().get();
+
+        PaymentManager first = SamsungPayClientPool.INSTANCE.paymentManager(activity,
+                BraintreePartnerInfo.from(mConfiguration, "session-id", "custom"), paymentManagerFactory());
+        PaymentManager second = SamsungPayClientPool.INSTANCE.paymentManager(activity,
+                BraintreePartnerInfo.from(mConfiguration, "other-session-id", "custom"), paymentManagerFactory());
+
+        assertNotSame(first, second);
+        assertEquals(2, mCreatedCount);
+    }
+
+    @Test
+    public void paymentManager_afterActivityIsDestroyed_createsNewInstance() {
+        ActivityController<Activity> controller = Robolectric.buildActivity(Activity.class).create();
+        Activity activity = controller.get();
+        BraintreePartnerInfo partnerInfo = BraintreePartnerInfo.from(mConfiguration, "session-id", "custom");
+
+        PaymentManager first = SamsungPayClientPool.INSTANCE.paymentManager(activity, partnerInfo, paymentManagerFactory());
+        controller.destroy();
+        PaymentManager second = SamsungPayClientPool.INSTANCE.paymentManager(activity, partnerInfo, paymentManagerFactory());
+
+        assertNotSame(first, second);
+        assertEquals(2, mCreatedCount);
+    }
+
+    @Test
+    public void activityDestroyed_releasesThePaymentGuardOfAPaymentStartedFromIt() {
+        ActivityController<Activity> controller = Robolectric.buildActivity(Activity.class).create();
+        PaymentManager paymentManager = mock(PaymentManager.class);
+        SamsungPayPaymentSessionGuard.INSTANCE.reset();
+
+        assertEquals(SamsungPayPaymentSessionGuard.Result.ACQUIRED, SamsungPayPaymentSessionGuard.INSTANCE.acquire(
+                controller.get(), paymentManager, new Object(), new SamsungPayPaymentSession(null)));
+        assertEquals(SamsungPayPaymentSessionGuard.Result.REJECTED, SamsungPayPaymentSessionGuard.INSTANCE.acquire(
+                null, paymentManager, new Object(), new SamsungPayPaymentSession(null)));
+
+        controller.destroy();
+
+        assertEquals(SamsungPayPaymentSessionGuard.Result.ACQUIRED, SamsungPayPaymentSessionGuard.INSTANCE.acquire(
+                null, paymentManager, new Object(), new SamsungPayPaymentSession(null)));
+        SamsungPayPaymentSessionGuard.INSTANCE.reset();
+    }
+
+    private Function0<PaymentManager> paymentManagerFactory() {
+        return new Function0<PaymentManager>() {
+            @Override
+            public PaymentManager invoke() {
+                mCreatedCount++;
+                return mock(PaymentManager.class);
+            }
+        };
+    }
+}
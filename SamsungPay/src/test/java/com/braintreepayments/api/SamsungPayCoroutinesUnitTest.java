@@ -0,0 +1,406 @@
+package com.braintreepayments.api;
+
+import android.os.Bundle;
+
+import com.braintreepayments.api.exceptions.SamsungPayException;
+import com.braintreepayments.api.interfaces.ConfigurationListener;
+import com.braintreepayments.api.interfaces.SamsungPayCustomTransactionUpdateListener;
+import com.braintreepayments.api.models.Configuration;
+import com.samsung.android.sdk.samsungpay.v2.SpaySdk;
+import com.samsung.android.sdk.samsungpay.v2.StatusListener;
+import com.samsung.android.sdk.samsungpay.v2.payment.CardInfo;
+import com.samsung.android.sdk.samsungpay.v2.payment.CustomSheetPaymentInfo;
+import com.samsung.android.sdk.samsungpay.v2.payment.PaymentManager;
+import com.samsung.android.sdk.samsungpay.v2.payment.sheet.AmountBoxControl;
+import com.samsung.android.sdk.samsungpay.v2.payment.sheet.AmountConstants;
+import com.samsung.android.sdk.samsungpay.v2.payment.sheet.CustomSheet;
+
+import org.json.JSONException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.powermock.core.classloader.annotations.PowerMockIgnore;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+import org.powermock.modules.junit4.PowerMockRunnerDelegate;
+import org.powermock.modules.junit4.rule.PowerMockRule;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+
+import kotlin.coroutines.Continuation;
+import kotlin.coroutines.EmptyCoroutineContext;
+import kotlin.jvm.functions.Function2;
+import kotlinx.coroutines.BuildersKt;
+import kotlinx.coroutines.CoroutineScope;
+import kotlinx.coroutines.CoroutineStart;
+import kotlinx.coroutines.Deferred;
+import kotlinx.coroutines.Dispatchers;
+import kotlinx.coroutines.GlobalScope;
+import kotlinx.coroutines.flow.FlowKt;
+
+import static com.braintreepayments.api.test.FixturesHelper.stringFromFixture;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNotNull;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+import static junit.framework.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.powermock.api.support.membermodification.MemberMatcher.method;
+import static org.powermock.api.support.membermodification.MemberModifier.stub;
+
+@RunWith(PowerMockRunner.class)
+@PowerMockRunnerDelegate(RobolectricTestRunner.class)
+@PowerMockIgnore({"org.mockito.*", "org.robolectric.*", "android.*", "org.json.*"})
+@PrepareForTest({
+        SamsungPay.class,
+        com.samsung.android.sdk.samsungpay.v2.SamsungPay.class,
+        PaymentManager.class
+})
+public class SamsungPayCoroutinesUnitTest {
+
+    @Rule
+    public PowerMockRule mPowerMockRule = new PowerMockRule();
+
+    private BraintreeFragment mBraintreeFragment;
+
+    @Before
+    public void setup() {
+        mBraintreeFragment = new MockFragmentBuilder()
+                .configuration(stringFromFixture("configuration/with_samsung_pay.json"))
+                .build();
+    }
+
+    @After
+    public void teardown() {
+        SamsungPayAvailabilityCache.invalidate();
+        SamsungPay.setBackgroundExecutor(null);
+        SamsungPayPaymentSessionGuard.INSTANCE.reset();
+    }
+
+    @Test
+    public void awaitReadyToPay_resumesWithAvailability() throws InterruptedException {
+        stubSamsungPayStatus(SpaySdk.SPAY_NOT_READY);
+
+        SamsungPayAvailability availability = runBlocking(
+                new Function2<CoroutineScope, Continuation<? super SamsungPayAvailability>, Object>() {
+                    @Override
+                    public Object invoke(CoroutineScope scope, Continuation<? super SamsungPayAvailability> continuation) {
+                        return SamsungPayCoroutinesKt.awaitReadyToPay(SamsungPay.Companion, mBraintreeFragment,
+                                continuation);
+                    }
+                });
+
+        assertEquals(SpaySdk.SPAY_NOT_READY, availability.getStatus());
+    }
+
+    @Test
+    public void awaitReadyToPay_whenSamsungPayFails_throwsSamsungPayException() throws InterruptedException {
+        com.samsung.android.sdk.samsungpay.v2.SamsungPay mockedSamsungPay = mock(com.samsung.android.sdk.samsungpay.v2.SamsungPay.class);
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) {
+                ((StatusListener) invocation.getArguments()[0]).onFail(SpaySdk.ERROR_DEVICE_NOT_SAMSUNG, new Bundle());
+                return null;
+            }
+        }).when(mockedSamsungPay).getSamsungPayStatus(any(StatusListener.class));
+        stubSamsungPay(mockedSamsungPay);
+
+        try {
+            runBlocking(new Function2<CoroutineScope, Continuation<? super SamsungPayAvailability>, Object>() {
+                @Override
+                public Object invoke(CoroutineScope scope, Continuation<? super SamsungPayAvailability> continuation) {
+                    return SamsungPayCoroutinesKt.awaitReadyToPay(SamsungPay.Companion, mBraintreeFragment,
+                            continuation);
+                }
+            });
+            fail("Expected SamsungPayException");
+        } catch (Exception e) {
+            assertTrue(e instanceof SamsungPayException);
+            assertEquals(SpaySdk.ERROR_DEVICE_NOT_SAMSUNG, ((SamsungPayException) e).getCode());
+        }
+    }
+
+    @Test
+    public void awaitReadyToPay_whenCancelled_dropsTheResult() {
+        final List<StatusListener> statusListeners = new ArrayList<>();
+        com.samsung.android.sdk.samsungpay.v2.SamsungPay mockedSamsungPay = mock(com.samsung.android.sdk.samsungpay.v2.SamsungPay.class);
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) {
+                statusListeners.add((StatusListener) invocation.getArguments()[0]);
+                return null;
+            }
+        }).when(mockedSamsungPay).getSamsungPayStatus(any(StatusListener.class));
+        stubSamsungPay(mockedSamsungPay);
+
+        Deferred<SamsungPayAvailability> deferred = async(
+                new Function2<CoroutineScope, Continuation<? super SamsungPayAvailability>, Object>() {
+                    @Override
+                    public Object invoke(CoroutineScope scope, Continuation<? super SamsungPayAvailability> continuation) {
+                        return SamsungPayCoroutinesKt.awaitReadyToPay(SamsungPay.Companion, mBraintreeFragment,
+                                continuation);
+                    }
+                });
+        assertEquals(1, statusListeners.size());
+        assertTrue(deferred.isActive());
+
+        deferred.cancel((CancellationException) null);
+        statusListeners.get(0).onSuccess(SpaySdk.SPAY_NOT_READY, new Bundle());
+
+        assertTrue(deferred.isCancelled());
+        assertTrue(deferred.getCompletionExceptionOrNull() instanceof CancellationException);
+    }
+
+    @Test
+    public void awaitPaymentManager_resumesWithPaymentManager() throws InterruptedException {
+        PaymentManager mockedPaymentManager = mock(PaymentManager.class);
+        stubPaymentManager(mockedPaymentManager);
+
+        PaymentManager paymentManager = runBlocking(
+                new Function2<CoroutineScope, Continuation<? super PaymentManager>, Object>() {
+                    @Override
+                    public Object invoke(CoroutineScope scope, Continuation<? super PaymentManager> continuation) {
+                        return SamsungPayCoroutinesKt.awaitPaymentManager(SamsungPay.Companion, mBraintreeFragment,
+                                continuation);
+                    }
+                });
+
+        assertSame(mockedPaymentManager, paymentManager);
+    }
+
+    @Test
+    public void awaitPaymentManager_whenCancelled_dropsTheResult() throws JSONException {
+        stubPaymentManager(mock(PaymentManager.class));
+        final List<ConfigurationListener> configurationListeners = new ArrayList<>();
+        final BraintreeFragment fragment = mock(BraintreeFragment.class);
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) {
+                configurationListeners.add((ConfigurationListener) invocation.getArguments()[0]);
+                return null;
+            }
+        }).when(fragment).waitForConfiguration(any(ConfigurationListener.class));
+        when(fragment.getSessionId()).thenReturn("session-id");
+
+        Deferred<PaymentManager> deferred = async(
+                new Function2<CoroutineScope, Continuation<? super PaymentManager>, Object>() {
+                    @Override
+                    public Object invoke(CoroutineScope scope, Continuation<? super PaymentManager> continuation) {
+                        return SamsungPayCoroutinesKt.awaitPaymentManager(SamsungPay.Companion, fragment, continuation);
+                    }
+                });
+        deferred.cancel((CancellationException) null);
+        configurationListeners.get(0).onConfigurationFetched(
+                Configuration.fromJson(stringFromFixture("configuration/with_samsung_pay.json")));
+
+        assertTrue(deferred.isCancelled());
+        assertTrue(deferred.getCompletionExceptionOrNull() instanceof CancellationException);
+    }
+
+    @Test
+    public void awaitPaymentInfo_resumesWithPaymentInfoBuilder() throws InterruptedException {
+        CustomSheetPaymentInfo.Builder builder = runBlocking(
+                new Function2<CoroutineScope, Continuation<? super CustomSheetPaymentInfo.Builder>, Object>() {
+                    @Override
+                    public Object invoke(CoroutineScope scope,
+                                         Continuation<? super CustomSheetPaymentInfo.Builder> continuation) {
+                        return SamsungPayCoroutinesKt.awaitPaymentInfo(SamsungPay.Companion, mBraintreeFragment,
+                                continuation);
+                    }
+                });
+
+        assertNotNull(builder);
+    }
+
+    @Test
+    public void requestPaymentEvents_onSuccess_emitsSuccessAndCompletes() throws InterruptedException {
+        SamsungPay.setBackgroundExecutor(directExecutor());
+        final String credential = stringFromFixture("payment_methods/samsung_pay_response.json");
+        PaymentManager paymentManager = paymentManagerAnswering(new SheetCallback() {
+            @Override
+            public void run(PaymentManager.CustomSheetTransactionInfoListener listener) {
+                listener.onSuccess(getCustomSheetPaymentInfo(), credential, null);
+            }
+        });
+
+        List<SamsungPayTransactionEvent> events = collectEvents(paymentManager);
+
+        assertEquals(1, events.size());
+        assertTrue(events.get(0) instanceof SamsungPayTransactionEvent.Success);
+    }
+
+    @Test
+    public void requestPaymentEvents_onCardInfoUpdated_emitsThePendingUpdateWithoutSendingTheSheet()
+            throws InterruptedException {
+        SamsungPay.setBackgroundExecutor(directExecutor());
+        final String credential = stringFromFixture("payment_methods/samsung_pay_response.json");
+        final CustomSheet sheet = getCustomSheetPaymentInfo().getCustomSheet();
+        PaymentManager paymentManager = paymentManagerAnswering(new SheetCallback() {
+            @Override
+            public void run(PaymentManager.CustomSheetTransactionInfoListener listener) {
+                listener.onCardInfoUpdated(new CardInfo.Builder().setBrand(SpaySdk.Brand.VISA).build(), sheet);
+                listener.onSuccess(getCustomSheetPaymentInfo(), credential, null);
+            }
+        });
+
+        List<SamsungPayTransactionEvent> events = collectEvents(paymentManager);
+
+        assertEquals(2, events.size());
+        SamsungPayTransactionEvent.CardInfoUpdated cardInfoUpdated =
+                (SamsungPayTransactionEvent.CardInfoUpdated) events.get(0);
+        assertSame(sheet, cardInfoUpdated.getUpdate().getCustomSheet());
+        assertTrue(events.get(1) instanceof SamsungPayTransactionEvent.Success);
+        verify(paymentManager, never()).updateSheet(any(CustomSheet.class));
+    }
+
+    @Test
+    public void requestPaymentEvents_whenSuccessHasNoResponse_completes() throws InterruptedException {
+        SamsungPay.setBackgroundExecutor(directExecutor());
+        final String credential = stringFromFixture("payment_methods/samsung_pay_response.json");
+        PaymentManager paymentManager = paymentManagerAnswering(new SheetCallback() {
+            @Override
+            public void run(PaymentManager.CustomSheetTransactionInfoListener listener) {
+                listener.onSuccess(null, credential, null);
+            }
+        });
+
+        assertTrue(collectEvents(paymentManager).isEmpty());
+    }
+
+    @Test
+    public void requestPaymentEvents_whenUserCancels_completesWithoutEvents() throws InterruptedException {
+        PaymentManager paymentManager = paymentManagerAnswering(new SheetCallback() {
+            @Override
+            public void run(PaymentManager.CustomSheetTransactionInfoListener listener) {
+                listener.onFailure(SpaySdk.ERROR_USER_CANCELED, null);
+            }
+        });
+
+        assertTrue(collectEvents(paymentManager).isEmpty());
+    }
+
+    @Test
+    public void requestPaymentEvents_whenSamsungPayFails_throwsSamsungPayException() throws InterruptedException {
+        PaymentManager paymentManager = paymentManagerAnswering(new SheetCallback() {
+            @Override
+            public void run(PaymentManager.CustomSheetTransactionInfoListener listener) {
+                listener.onFailure(SpaySdk.ERROR_NO_NETWORK, null);
+            }
+        });
+
+        try {
+            collectEvents(paymentManager);
+            fail("Expected SamsungPayException");
+        } catch (Exception e) {
+            assertTrue(e instanceof SamsungPayException);
+            assertEquals(SpaySdk.ERROR_NO_NETWORK, ((SamsungPayException) e).getCode());
+        }
+    }
+
+    @Test
+    public void requestPaymentEvents_whileAnotherPaymentIsOpen_throwsPaymentInProgress() throws InterruptedException {
+        SamsungPay.requestPayment(mBraintreeFragment, mock(PaymentManager.class), getCustomSheetPaymentInfo(),
+                mock(SamsungPayCustomTransactionUpdateListener.class));
+
+        try {
+            collectEvents(mock(PaymentManager.class));
+            fail("Expected SamsungPayException");
+        } catch (Exception e) {
+            assertTrue(e instanceof SamsungPayException);
+            assertEquals(SamsungPay.SPAY_PAYMENT_IN_PROGRESS, ((SamsungPayException) e).getCode());
+        }
+    }
+
+    private interface SheetCallback {
+        void run(PaymentManager.CustomSheetTransactionInfoListener listener);
+    }
+
+    private PaymentManager paymentManagerAnswering(final SheetCallback callback) {
+        PaymentManager paymentManager = mock(PaymentManager.class);
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) {
+                callback.run((PaymentManager.CustomSheetTransactionInfoListener) invocation.getArguments()[1]);
+                return null;
+            }
+        }).when(paymentManager).startInAppPayWithCustomSheet(any(CustomSheetPaymentInfo.class),
+                any(PaymentManager.CustomSheetTransactionInfoListener.class));
+        return paymentManager;
+    }
+
+    private List<SamsungPayTransactionEvent> collectEvents(final PaymentManager paymentManager)
+            throws InterruptedException {
+        return runBlocking(new Function2<CoroutineScope, Continuation<? super List<SamsungPayTransactionEvent>>, Object>() {
+            @Override
+            public Object invoke(CoroutineScope scope, Continuation<? super List<SamsungPayTransactionEvent>> continuation) {
+                return FlowKt.toList(SamsungPayCoroutinesKt.requestPaymentEvents(SamsungPay.Companion,
+                        mBraintreeFragment, paymentManager, getCustomSheetPaymentInfo()),
+                        new ArrayList<SamsungPayTransactionEvent>(), continuation);
+            }
+        });
+    }
+
+    private <T> T runBlocking(Function2<CoroutineScope, Continuation<? super T>, Object> block)
+            throws InterruptedException {
+        return BuildersKt.runBlocking(EmptyCoroutineContext.INSTANCE, block);
+    }
+
+    private <T> Deferred<T> async(Function2<CoroutineScope, Continuation<? super T>, Object> block) {
+        return BuildersKt.async(GlobalScope.INSTANCE, Dispatchers.getUnconfined(), CoroutineStart.DEFAULT, block);
+    }
+
+    private void stubSamsungPayStatus(final int status) {
+        com.samsung.android.sdk.samsungpay.v2.SamsungPay mockedSamsungPay = mock(com.samsung.android.sdk.samsungpay.v2.SamsungPay.class);
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) {
+                ((StatusListener) invocation.getArguments()[0]).onSuccess(status, new Bundle());
+                return null;
+            }
+        }).when(mockedSamsungPay).getSamsungPayStatus(any(StatusListener.class));
+        stubSamsungPay(mockedSamsungPay);
+    }
+
+    private void stubSamsungPay(com.samsung.android.sdk.samsungpay.v2.SamsungPay mockedSamsungPay) {
+        stub(method(SamsungPay.Companion.class, "getSamsungPay")).toReturn(mockedSamsungPay);
+    }
+
+    private void stubPaymentManager(PaymentManager mockedPaymentManager) {
+        stub(method(SamsungPay.Companion.class, "getPaymentManager")).toReturn(mockedPaymentManager);
+    }
+
+    private CustomSheetPaymentInfo getCustomSheetPaymentInfo() {
+        AmountBoxControl amountBoxControl = new AmountBoxControl("amountID", "USD");
+        amountBoxControl.addItem("itemId", "Items", 1000, "");
+        amountBoxControl.setAmountTotal(1000, AmountConstants.FORMAT_TOTAL_PRICE_ONLY);
+
+        CustomSheet sheet = new CustomSheet();
+        sheet.addControl(amountBoxControl);
+
+        return new CustomSheetPaymentInfo.Builder()
+                .setCustomSheet(sheet)
+                .build();
+    }
+
+    private Executor directExecutor() {
+        return new Executor() {
+            @Override
+            public void execute(Runnable runnable) {
+                runnable.run();
+            }
+        };
+    }
+}
@@ -0,0 +1,47 @@
+package com.braintreepayments.api;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import static com.braintreepayments.api.SamsungPayMetrics.Operation.IS_READY_TO_PAY;
+import static com.braintreepayments.api.SamsungPayMetrics.Operation.REQUEST_PAYMENT;
+import static com.braintreepayments.api.SamsungPayMetrics.Outcome.FAILURE;
+import static com.braintreepayments.api.SamsungPayMetrics.Outcome.SUCCESS;
+import static junit.framework.Assert.assertEquals;
+
+@RunWith(RobolectricTestRunner.class)
+public class SamsungPayInMemoryMetricsUnitTest {
+
+    @Test
+    public void keepsCountsAndTimingsPerOperationAndOutcome() {
+        SamsungPayInMemoryMetrics metrics = new SamsungPayInMemoryMetrics();
+
+        metrics.increment(IS_READY_TO_PAY);
+        metrics.increment(IS_READY_TO_PAY);
+        metrics.recordNanos(IS_READY_TO_PAY, SUCCESS, 100);
+        metrics.recordNanos(IS_READY_TO_PAY, SUCCESS, 300);
+        metrics.recordNanos(IS_READY_TO_PAY, FAILURE, 50);
+
+        assertEquals(2, metrics.getCallCount(IS_READY_TO_PAY));
+        assertEquals(2, metrics.getCount(IS_READY_TO_PAY, SUCCESS));
+        assertEquals(400, metrics.getTotalNanos(IS_READY_TO_PAY, SUCCESS));
+        assertEquals(1, metrics.getCount(IS_READY_TO_PAY, FAILURE));
+        assertEquals(300, metrics.getMaxNanos(IS_READY_TO_PAY));
+        assertEquals(0, metrics.getCallCount(REQUEST_PAYMENT));
+    }
+
+    @Test
+    public void reset_clearsEverything() {
+        SamsungPayInMemoryMetrics metrics = new SamsungPayInMemoryMetrics();
+        metrics.increment(REQUEST_PAYMENT);
+        metrics.recordNanos(REQUEST_PAYMENT, SUCCESS, 100);
+
+        metrics.reset();
+
+        assertEquals(0, metrics.getCallCount(REQUEST_PAYMENT));
+        assertEquals(0, metrics.getCount(REQUEST_PAYMENT, SUCCESS));
+        assertEquals(0, metrics.getTotalNanos(REQUEST_PAYMENT, SUCCESS));
+        assertEquals(0, metrics.getMaxNanos(REQUEST_PAYMENT));
+    }
+}
@@ -0,0 +1,89 @@
+package com.braintreepayments.api;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import kotlin.Unit;
+import kotlin.jvm.functions.Function1;
+
+import static com.braintreepayments.api.SamsungPayPaymentPhase.*;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class SamsungPayPaymentSessionUnitTest {
+
+    @Test
+    public void startsInSheetOpening() {
+        assertEquals(SHEET_OPENING, new SamsungPayPaymentSession(null).getPhase());
+    }
+
+    @Test
+    public void moveTo_followsTheHappyPath() {
+        SamsungPayPaymentSession session = new SamsungPayPaymentSession(null);
+
+        assertTrue(session.moveTo(SHEET_SHOWN));
+        assertTrue(session.moveTo(CARD_UPDATING));
+        assertTrue(session.moveTo(CARD_UPDATING));
+        assertTrue(session.moveTo(SHEET_SHOWN));
+        assertTrue(session.moveTo(AUTHORIZING));
+        assertTrue(session.moveTo(TOKENIZED));
+        assertEquals(TOKENIZED, session.getPhase());
+    }
+
+    @Test
+    public void moveTo_rejectsIllegalTransitionsAndKeepsThePhase() {
+        SamsungPayPaymentSession session = new SamsungPayPaymentSession(null);
+
+        assertFalse(session.moveTo(TOKENIZED));
+        assertFalse(session.moveTo(SHEET_OPENING));
+        session.moveTo(AUTHORIZING);
+        assertFalse(session.moveTo(CARD_UPDATING));
+        assertFalse(session.moveTo(CANCELED));
+
+        assertEquals(AUTHORIZING, session.getPhase());
+    }
+
+    @Test
+    public void moveTo_rejectsEverythingOnceFinal() {
+        for (SamsungPayPaymentPhase last : new SamsungPayPaymentPhase[] { TOKENIZED, FAILED, CANCELED }) {
+            SamsungPayPaymentSession session = new SamsungPayPaymentSession(null);
+            if (last == TOKENIZED) {
+                session.moveTo(AUTHORIZING);
+            }
+            assertTrue(session.moveTo(last));
+
+            for (SamsungPayPaymentPhase next : SamsungPayPaymentPhase.values()) {
+                assertFalse(last + " -> " + next, session.moveTo(next));
+            }
+        }
+    }
+
+    @Test
+    public void moveTo_reportsTimingsOnceWithRejectedTransitions() {
+        final List<SamsungPayPaymentTimings> reported = new ArrayList<>();
+        SamsungPayPaymentSession session = new SamsungPayPaymentSession(
+                new Function1<SamsungPayPaymentTimings, Unit>() {
+                    @Override
+                    public Unit invoke(SamsungPayPaymentTimings timings) {
+                        reported.add(timings);
+                        return Unit.INSTANCE;
+                    }
+                });
+
+        session.moveTo(SHEET_SHOWN);
+        session.moveTo(SHEET_SHOWN);
+        session.moveTo(CANCELED);
+        session.moveTo(FAILED);
+
+        assertEquals(1, reported.size());
+        assertEquals(CANCELED, reported.get(0).getFinalPhase());
+        assertEquals(3, reported.get(0).getTransitionCount());
+        assertEquals(1, reported.get(0).getRejectedTransitionCount());
+    }
+}
@@ -1,12 +1,18 @@
 package com.braintreepayments.api;
 
+import android.app.Activity;
 import android.content.Context;
+import android.content.Intent;
 import android.content.pm.ApplicationInfo;
 import android.content.pm.PackageManager;
+import android.net.Uri;
 import android.os.Bundle;
+import android.os.CancellationSignal;
+import android.os.SystemClock;
 import com.braintreepayments.api.exceptions.SamsungPayException;
 import com.braintreepayments.api.interfaces.BraintreeErrorListener;
 import com.braintreepayments.api.interfaces.BraintreeResponseListener;
+import com.braintreepayments.api.interfaces.SamsungPayAsyncTransactionUpdateListener;
 import com.braintreepayments.api.interfaces.SamsungPayCustomTransactionUpdateListener;
 import com.braintreepayments.api.internal.ClassHelper;
 import com.braintreepayments.api.models.BraintreeRequestCodes;
@@ -21,13 +27,17 @@ import com.samsung.android.sdk.samsungpay.v2.payment.PaymentManager;
 import com.samsung.android.sdk.samsungpay.v2.payment.sheet.AmountBoxControl;
 import com.samsung.android.sdk.samsungpay.v2.payment.sheet.AmountConstants;
 import com.samsung.android.sdk.samsungpay.v2.payment.sheet.CustomSheet;
+import kotlin.jvm.functions.Function1;
 
+import org.json.JSONException;
 import org.json.JSONObject;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 import org.powermock.api.mockito.PowerMockito;
@@ -36,12 +46,17 @@ import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 import org.powermock.modules.junit4.PowerMockRunnerDelegate;
 import org.powermock.modules.junit4.rule.PowerMockRule;
+import org.robolectric.Robolectric;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.RuntimeEnvironment;
+import org.robolectric.android.controller.ActivityController;
+import org.robolectric.shadows.ShadowLooper;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 import static com.braintreepayments.api.models.BinData.*;
 import static com.braintreepayments.api.test.FixturesHelper.stringFromFixture;
@@ -79,6 +94,14 @@ public class SamsungPayUnitTest {
         mBraintreeFragment = new MockFragmentBuilder()
                 .configuration(stringFromFixture("configuration/with_samsung_pay.json"))
                 .build();
+        SamsungPayAnalytics.INSTANCE.setQueueForTesting(new SamsungPayAnalyticsQueue(
+                SamsungPayAnalyticsQueue.DEFAULT_CAPACITY, 1, SamsungPayAnalyticsQueue.DEFAULT_FLUSH_INTERVAL_MILLIS,
+                directExecutor(), new Function1<BraintreeFragment, Boolean>() {
+                    @Override
+                    public Boolean invoke(BraintreeFragment fragment) {
+                        return true;
+                    }
+                }));
 
         ApplicationInfo mockApplicationInfo = mock(ApplicationInfo.class);
 
@@ -101,6 +124,19 @@ public class SamsungPayUnitTest {
         });
     }
 
+    @After
+    public void teardown() {
+        SamsungPayAvailabilityCache.setTtl(SamsungPayAvailabilityCache.DEFAULT_TTL_MILLIS);
+        SamsungPayAvailabilityCache.invalidate();
+        SamsungPay.setSpeculativeCardInfoLookupEnabled(false);
+        SamsungPay.setBackgroundExecutor(null);
+        SamsungPay.setSheetUpdateCoalescingWindow(SamsungPay.DEFAULT_SHEET_UPDATE_COALESCING_WINDOW_MILLIS);
+        SamsungPay.setPaymentTimingsListener(null);
+        SamsungPay.setMetrics(null);
+        SamsungPayPaymentSessionGuard.INSTANCE.reset();
+        SamsungPayAnalytics.INSTANCE.setQueueForTesting(null);
+    }
+
 
     @Test
     public void isReadyToPay_whenSDKNotAvailable_returnsStatusNotSupported() throws InterruptedException {
@@ -128,7 +164,7 @@ public class SamsungPayUnitTest {
 
         SamsungPay.isReadyToPay(mBraintreeFragment, this.<SamsungPayAvailability>emptyResponse());
 
-        verify(mBraintreeFragment).sendAnalyticsEvent("samsung-pay.is-ready-to-pay.samsung-pay-class-unavailable");
+        verify(mBraintreeFragment).sendAnalyticsEvent(SamsungPayAnalyticsEvent.IS_READY_TO_PAY_SAMSUNG_PAY_CLASS_UNAVAILABLE.getWireName());
     }
 
     @Test
@@ -155,7 +191,7 @@ public class SamsungPayUnitTest {
 
         SamsungPay.isReadyToPay(mBraintreeFragment, this.<SamsungPayAvailability>emptyResponse());
 
-        verify(mBraintreeFragment).sendAnalyticsEvent("samsung-pay.is-ready-to-pay.device-not-supported");
+        verify(mBraintreeFragment).sendAnalyticsEvent(SamsungPayAnalyticsEvent.IS_READY_TO_PAY_DEVICE_NOT_SUPPORTED.getWireName());
     }
 
     @Test
@@ -182,7 +218,7 @@ public class SamsungPayUnitTest {
 
         SamsungPay.isReadyToPay(mBraintreeFragment, this.<SamsungPayAvailability>emptyResponse());
 
-        verify(mBraintreeFragment).sendAnalyticsEvent("samsung-pay.is-ready-to-pay.not-ready");
+        verify(mBraintreeFragment).sendAnalyticsEvent(SamsungPayAnalyticsEvent.IS_READY_TO_PAY_NOT_READY.getWireName());
     }
 
     @Test
@@ -251,7 +287,43 @@ public class SamsungPayUnitTest {
 
         SamsungPay.isReadyToPay(mBraintreeFragment, this.<SamsungPayAvailability>emptyResponse());
 
-        verify(mBraintreeFragment).sendAnalyticsEvent("samsung-pay.is-ready-to-pay.ready");
+        verify(mBraintreeFragment).sendAnalyticsEvent(SamsungPayAnalyticsEvent.IS_READY_TO_PAY_READY.getWireName());
+    }
+
+    @Test
+    public void isReadyToPay_recordsMetricsForEachStep() {
+        SamsungPayInMemoryMetrics metrics = new SamsungPayInMemoryMetrics();
+        SamsungPay.setMetrics(metrics);
+        stubSamsungPayStatus(SpaySdk.SPAY_READY);
+        List<CardInfo> cardInfos = new ArrayList<>();
+        cardInfos.add(new CardInfo.Builder().setBrand(SpaySdk.Brand.VISA).build());
+        stubPaymentManagerRequestCardInfo(cardInfos);
+
+        SamsungPay.isReadyToPay(mBraintreeFragment, this.<SamsungPayAvailability>emptyResponse());
+
+        assertEquals(1, metrics.getCallCount(SamsungPayMetrics.Operation.IS_READY_TO_PAY));
+        assertEquals(1, metrics.getCount(SamsungPayMetrics.Operation.IS_READY_TO_PAY,
+                SamsungPayMetrics.Outcome.SUCCESS));
+        assertEquals(1, metrics.getCount(SamsungPayMetrics.Operation.GET_PARTNER_INFO,
+                SamsungPayMetrics.Outcome.SUCCESS));
+        assertEquals(1, metrics.getCount(SamsungPayMetrics.Operation.REQUEST_CARD_INFO,
+                SamsungPayMetrics.Outcome.SUCCESS));
+    }
+
+    @Test
+    public void isReadyToPay_whenMetricsAreSetAndSamsungPayFails_recordsFailureAndStillPostsError() {
+        SamsungPayInMemoryMetrics metrics = new SamsungPayInMemoryMetrics();
+        SamsungPay.setMetrics(metrics);
+        stubSamsungPayStatus(SpaySdk.SPAY_READY);
+        stubPaymentManagerRequestCardInfo(SpaySdk.ERROR_NO_NETWORK);
+
+        SamsungPay.isReadyToPay(mBraintreeFragment, this.<SamsungPayAvailability>emptyResponse());
+
+        assertEquals(1, metrics.getCount(SamsungPayMetrics.Operation.IS_READY_TO_PAY,
+                SamsungPayMetrics.Outcome.FAILURE));
+        assertEquals(1, metrics.getCount(SamsungPayMetrics.Operation.REQUEST_CARD_INFO,
+                SamsungPayMetrics.Outcome.FAILURE));
+        verify(mBraintreeFragment).postCallback(any(SamsungPayException.class));
     }
 
     @Test
@@ -281,7 +353,7 @@ public class SamsungPayUnitTest {
 
         SamsungPay.isReadyToPay(mBraintreeFragment, this.<SamsungPayAvailability>emptyResponse());
 
-        verify(mBraintreeFragment).sendAnalyticsEvent("samsung-pay.request-card-info.no-supported-cards-in-wallet");
+        verify(mBraintreeFragment).sendAnalyticsEvent(SamsungPayAnalyticsEvent.REQUEST_CARD_INFO_NO_SUPPORTED_CARDS_IN_WALLET.getWireName());
     }
 
     @Test
@@ -311,7 +383,7 @@ public class SamsungPayUnitTest {
 
         SamsungPay.isReadyToPay(mBraintreeFragment, this.<SamsungPayAvailability>emptyResponse());
 
-        verify(mBraintreeFragment).sendAnalyticsEvent("samsung-pay.request-card-info.no-supported-cards-in-wallet");
+        verify(mBraintreeFragment).sendAnalyticsEvent(SamsungPayAnalyticsEvent.REQUEST_CARD_INFO_NO_SUPPORTED_CARDS_IN_WALLET.getWireName());
     }
 
     @Test
@@ -361,35 +433,543 @@ public class SamsungPayUnitTest {
 
         SamsungPay.isReadyToPay(mBraintreeFragment, this.<SamsungPayAvailability>emptyResponse());
 
-        verify(mBraintreeFragment).sendAnalyticsEvent("samsung-pay.is-ready-to-pay.failed");
-    }
-
-    @Test
-    public void isReadyToPay_whenCardInfoRequestFails_postsError() {
-        stubSamsungPayStatus(SpaySdk.SPAY_READY);
-        stubPaymentManagerRequestCardInfo(-1);
+        verify(mBraintreeFragment).sendAnalyticsEvent(SamsungPayAnalyticsEvent.IS_READY_TO_PAY_FAILED.getWireName());
+    }
+
+    @Test
+    public void isReadyToPay_whenCardInfoRequestFails_postsError() {
+        stubSamsungPayStatus(SpaySdk.SPAY_READY);
+        stubPaymentManagerRequestCardInfo(-1);
+
+        SamsungPay.isReadyToPay(mBraintreeFragment, this.<SamsungPayAvailability>emptyResponse());
+
+        ArgumentCaptor<Exception> exceptionCaptor = ArgumentCaptor.forClass(Exception.class);
+
+        verify(mBraintreeFragment).postCallback(exceptionCaptor.capture());
+
+        Exception capturedException = exceptionCaptor.getValue();
+
+        assertTrue(capturedException instanceof SamsungPayException);
+        assertEquals(-1, ((SamsungPayException) capturedException).getCode());
+        assertNotNull(((SamsungPayException) capturedException).getExtras());
+    }
+
+    @Test
+    public void isReadyToPay_whenCardInfoRequestFails_sendsAnalyticEvent() {
+        stubSamsungPayStatus(SpaySdk.SPAY_READY);
+        stubPaymentManagerRequestCardInfo(-1);
+
+        SamsungPay.isReadyToPay(mBraintreeFragment, this.<SamsungPayAvailability>emptyResponse());
+
+        verify(mBraintreeFragment).sendAnalyticsEvent(SamsungPayAnalyticsEvent.REQUEST_CARD_INFO_FAILED.getWireName());
+    }
+
+    @Test
+    public void isReadyToPay_whenCalledTwiceWithinTtl_returnsCachedAvailability() throws InterruptedException {
+        com.samsung.android.sdk.samsungpay.v2.SamsungPay mockedSamsungPay = stubSamsungPayStatus(SpaySdk.SPAY_NOT_READY,
+                SpaySdk.ERROR_SPAY_SETUP_NOT_COMPLETED);
+        long hitCount = SamsungPayAvailabilityCache.getHitCount();
+
+        SamsungPay.isReadyToPay(mBraintreeFragment, this.<SamsungPayAvailability>emptyResponse());
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        SamsungPay.isReadyToPay(mBraintreeFragment, new BraintreeResponseListener<SamsungPayAvailability>() {
+            @Override
+            public void onResponse(SamsungPayAvailability availability) {
+                assertEquals(SpaySdk.SPAY_NOT_READY, availability.getStatus());
+                assertEquals(SpaySdk.ERROR_SPAY_SETUP_NOT_COMPLETED, availability.getReason());
+
+                latch.countDown();
+            }
+        });
+
+        latch.await();
+        verify(mockedSamsungPay, times(1)).getSamsungPayStatus(any(StatusListener.class));
+        assertEquals(hitCount + 1, SamsungPayAvailabilityCache.getHitCount());
+        verify(mBraintreeFragment).sendAnalyticsEvent(SamsungPayAnalyticsEvent.IS_READY_TO_PAY_CACHE_HIT.getWireName());
+    }
+
+    @Test
+    public void isReadyToPay_afterInvalidate_queriesSamsungPayAgain() {
+        com.samsung.android.sdk.samsungpay.v2.SamsungPay mockedSamsungPay = stubSamsungPayStatus(SpaySdk.SPAY_NOT_READY);
+        long missCount = SamsungPayAvailabilityCache.getMissCount();
+
+        SamsungPay.isReadyToPay(mBraintreeFragment, this.<SamsungPayAvailability>emptyResponse());
+        SamsungPayAvailabilityCache.invalidate();
+        SamsungPay.isReadyToPay(mBraintreeFragment, this.<SamsungPayAvailability>emptyResponse());
+
+        verify(mockedSamsungPay, times(2)).getSamsungPayStatus(any(StatusListener.class));
+        assertEquals(missCount + 2, SamsungPayAvailabilityCache.getMissCount());
+    }
+
+    @Test
+    public void isReadyToPay_whenTtlIsZero_doesNotCache() {
+        SamsungPayAvailabilityCache.setTtl(0);
+        com.samsung.android.sdk.samsungpay.v2.SamsungPay mockedSamsungPay = stubSamsungPayStatus(SpaySdk.SPAY_NOT_READY);
+
+        SamsungPay.isReadyToPay(mBraintreeFragment, this.<SamsungPayAvailability>emptyResponse());
+        SamsungPay.isReadyToPay(mBraintreeFragment, this.<SamsungPayAvailability>emptyResponse());
+
+        verify(mockedSamsungPay, times(2)).getSamsungPayStatus(any(StatusListener.class));
+    }
+
+    @Test
+    public void isReadyToPay_whenSamsungPayPackageIsReplaced_queriesSamsungPayAgain() {
+        com.samsung.android.sdk.samsungpay.v2.SamsungPay mockedSamsungPay = stubSamsungPayStatus(SpaySdk.SPAY_NOT_READY);
+
+        SamsungPay.isReadyToPay(mBraintreeFragment, this.<SamsungPayAvailability>emptyResponse());
+        new SamsungPayPackageReceiver().onReceive(RuntimeEnvironment.application,
+                new Intent(Intent.ACTION_PACKAGE_REPLACED, Uri.parse("package:com.samsung.android.spay")));
+        SamsungPay.isReadyToPay(mBraintreeFragment, this.<SamsungPayAvailability>emptyResponse());
+
+        verify(mockedSamsungPay, times(2)).getSamsungPayStatus(any(StatusListener.class));
+    }
+
+    @Test
+    public void isReadyToPay_whenOtherPackageIsReplaced_returnsCachedAvailability() {
+        com.samsung.android.sdk.samsungpay.v2.SamsungPay mockedSamsungPay = stubSamsungPayStatus(SpaySdk.SPAY_NOT_READY);
+
+        SamsungPay.isReadyToPay(mBraintreeFragment, this.<SamsungPayAvailability>emptyResponse());
+        new SamsungPayPackageReceiver().onReceive(RuntimeEnvironment.application,
+                new Intent(Intent.ACTION_PACKAGE_REPLACED, Uri.parse("package:com.example.other")));
+        SamsungPay.isReadyToPay(mBraintreeFragment, this.<SamsungPayAvailability>emptyResponse());
+
+        verify(mockedSamsungPay, times(1)).getSamsungPayStatus(any(StatusListener.class));
+    }
+
+    @Test
+    public void isReadyToPay_whenCalledWhileRequestIsInFlight_joinsInFlightRequest() {
+        com.samsung.android.sdk.samsungpay.v2.SamsungPay mockedSamsungPay = mock(com.samsung.android.sdk.samsungpay.v2.SamsungPay.class);
+        stubSamsungPay(mockedSamsungPay);
+        final List<SamsungPayAvailability> responses = new ArrayList<>();
+        BraintreeResponseListener<SamsungPayAvailability> listener = new BraintreeResponseListener<SamsungPayAvailability>() {
+            @Override
+            public void onResponse(SamsungPayAvailability availability) {
+                responses.add(availability);
+            }
+        };
+
+        SamsungPay.isReadyToPay(mBraintreeFragment, listener);
+        SamsungPay.isReadyToPay(mBraintreeFragment, listener);
+
+        ArgumentCaptor<StatusListener> statusListenerCaptor = ArgumentCaptor.forClass(StatusListener.class);
+        verify(mockedSamsungPay, times(1)).getSamsungPayStatus(statusListenerCaptor.capture());
+        assertTrue(responses.isEmpty());
+
+        statusListenerCaptor.getValue().onSuccess(SpaySdk.SPAY_NOT_READY, new Bundle());
+
+        assertEquals(2, responses.size());
+        assertEquals(SpaySdk.SPAY_NOT_READY, responses.get(0).getStatus());
+        assertEquals(SpaySdk.SPAY_NOT_READY, responses.get(1).getStatus());
+        assertNotSame(responses.get(0), responses.get(1));
+    }
+
+    @Test
+    public void isReadyToPay_whenJoinedRequestFails_postsExceptionOncePerFragment() {
+        com.samsung.android.sdk.samsungpay.v2.SamsungPay mockedSamsungPay = mock(com.samsung.android.sdk.samsungpay.v2.SamsungPay.class);
+        stubSamsungPay(mockedSamsungPay);
+        BraintreeFragment otherFragment = new MockFragmentBuilder()
+                .configuration(stringFromFixture("configuration/with_samsung_pay.json"))
+                .build();
+
+        SamsungPay.isReadyToPay(mBraintreeFragment, this.<SamsungPayAvailability>emptyResponse());
+        SamsungPay.isReadyToPay(mBraintreeFragment, this.<SamsungPayAvailability>emptyResponse());
+        SamsungPay.isReadyToPay(otherFragment, this.<SamsungPayAvailability>emptyResponse());
+
+        ArgumentCaptor<StatusListener> statusListenerCaptor = ArgumentCaptor.forClass(StatusListener.class);
+        verify(mockedSamsungPay, times(1)).getSamsungPayStatus(statusListenerCaptor.capture());
+
+        statusListenerCaptor.getValue().onFail(SpaySdk.ERROR_DEVICE_NOT_SAMSUNG, new Bundle());
+
+        verify(mBraintreeFragment, times(1)).postCallback(any(SamsungPayException.class));
+        verify(otherFragment, times(1)).postCallback(any(SamsungPayException.class));
+    }
+
+    @Test
+    public void isReadyToPay_whenSpeculative_requestsCardInfoBeforeStatusCompletes() throws InterruptedException {
+        SamsungPay.setSpeculativeCardInfoLookupEnabled(true);
+        com.samsung.android.sdk.samsungpay.v2.SamsungPay mockedSamsungPay = mock(com.samsung.android.sdk.samsungpay.v2.SamsungPay.class);
+        stubSamsungPay(mockedSamsungPay);
+        List<CardInfo> cardInfos = new ArrayList<>();
+        cardInfos.add(new CardInfo.Builder().setBrand(SpaySdk.Brand.VISA).build());
+        PaymentManager mockedPaymentManager = stubPaymentManagerRequestCardInfo(cardInfos);
+        long speculativeCount = SamsungPayAvailabilityTimings.getSpeculativeLookupCount();
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        SamsungPay.isReadyToPay(mBraintreeFragment, new BraintreeResponseListener<SamsungPayAvailability>() {
+            @Override
+            public void onResponse(SamsungPayAvailability availability) {
+                assertEquals(SpaySdk.SPAY_READY, availability.getStatus());
+
+                latch.countDown();
+            }
+        });
+
+        verify(mockedPaymentManager).requestCardInfo(any(Bundle.class), any(PaymentManager.CardInfoListener.class));
+        ArgumentCaptor<StatusListener> statusListenerCaptor = ArgumentCaptor.forClass(StatusListener.class);
+        verify(mockedSamsungPay).getSamsungPayStatus(statusListenerCaptor.capture());
+
+        statusListenerCaptor.getValue().onSuccess(SpaySdk.SPAY_READY, new Bundle());
+
+        latch.await();
+        assertEquals(speculativeCount + 1, SamsungPayAvailabilityTimings.getSpeculativeLookupCount());
+    }
+
+    @Test
+    public void isReadyToPay_whenSpeculativeAndStatusIsNotReady_discardsCardInfo() throws InterruptedException {
+        SamsungPay.setSpeculativeCardInfoLookupEnabled(true);
+        stubSamsungPayStatus(SpaySdk.SPAY_NOT_READY);
+        stubPaymentManagerRequestCardInfo(new ArrayList<CardInfo>());
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        SamsungPay.isReadyToPay(mBraintreeFragment, new BraintreeResponseListener<SamsungPayAvailability>() {
+            @Override
+            public void onResponse(SamsungPayAvailability availability) {
+                assertEquals(SpaySdk.SPAY_NOT_READY, availability.getStatus());
+                assertEquals(0, availability.getReason());
+
+                latch.countDown();
+            }
+        });
+
+        latch.await();
+        verify(mBraintreeFragment, never()).sendAnalyticsEvent(SamsungPayAnalyticsEvent.REQUEST_CARD_INFO_NO_SUPPORTED_CARDS_IN_WALLET.getWireName());
+    }
+
+    @Test
+    public void isReadyToPay_whenNotSpeculative_recordsSerialTiming() {
+        stubSamsungPayStatus(SpaySdk.SPAY_READY);
+        List<CardInfo> cardInfos = new ArrayList<>();
+        cardInfos.add(new CardInfo.Builder().setBrand(SpaySdk.Brand.VISA).build());
+        stubPaymentManagerRequestCardInfo(cardInfos);
+        long serialCount = SamsungPayAvailabilityTimings.getSerialLookupCount();
+
+        SamsungPay.isReadyToPay(mBraintreeFragment, this.<SamsungPayAvailability>emptyResponse());
+
+        assertEquals(serialCount + 1, SamsungPayAvailabilityTimings.getSerialLookupCount());
+    }
+
+    @Test
+    public void prewarm_reportsWhichStepsWereAlreadyWarm() {
+        SamsungPay.setBackgroundExecutor(directExecutor());
+        stubSamsungPayStatus(SpaySdk.SPAY_NOT_READY);
+        stubPaymentManager(mock(PaymentManager.class));
+        final List<SamsungPayPrewarmResult> results = new ArrayList<>();
+        BraintreeResponseListener<SamsungPayPrewarmResult> listener = new BraintreeResponseListener<SamsungPayPrewarmResult>() {
+            @Override
+            public void onResponse(SamsungPayPrewarmResult result) {
+                results.add(result);
+            }
+        };
+
+        SamsungPay.prewarm(mBraintreeFragment, listener);
+        SamsungPay.prewarm(mBraintreeFragment, listener);
+
+        assertEquals(2, results.size());
+        assertTrue(results.get(0).isConfigurationWarm());
+        assertFalse(results.get(0).isPartnerInfoWarm());
+        assertFalse(results.get(0).isAvailabilityWarm());
+        assertEquals(SpaySdk.SPAY_NOT_READY, results.get(0).getAvailability().getStatus());
+
+        assertTrue(results.get(1).isPartnerInfoWarm());
+        assertTrue(results.get(1).isAvailabilityWarm());
+        assertEquals(SpaySdk.SPAY_NOT_READY, results.get(1).getAvailability().getStatus());
+    }
+
+    @Test
+    public void prewarm_whenCardInfoRequestFails_stillCallsListenerAndPostsError() {
+        SamsungPay.setBackgroundExecutor(directExecutor());
+        stubSamsungPayStatus(SpaySdk.SPAY_READY);
+        stubPaymentManagerRequestCardInfo(SpaySdk.ERROR_NO_NETWORK);
+        final List<SamsungPayPrewarmResult> results = new ArrayList<>();
+
+        SamsungPay.prewarm(mBraintreeFragment, new BraintreeResponseListener<SamsungPayPrewarmResult>() {
+            @Override
+            public void onResponse(SamsungPayPrewarmResult result) {
+                results.add(result);
+            }
+        });
+
+        assertEquals(1, results.size());
+        assertEquals(SpaySdk.SPAY_NOT_READY, results.get(0).getAvailability().getStatus());
+        assertEquals(SpaySdk.ERROR_NO_NETWORK, results.get(0).getAvailability().getReason());
+        verify(mBraintreeFragment).postCallback(any(SamsungPayException.class));
+        verify(mBraintreeFragment, never()).sendAnalyticsEvent(SamsungPayAnalyticsEvent.PREWARM_SUCCESS.getWireName());
+    }
+
+    @Test
+    public void prewarm_sendsAnalyticEvent() {
+        SamsungPay.setBackgroundExecutor(directExecutor());
+        stubSamsungPayStatus(SpaySdk.SPAY_NOT_READY);
+        stubPaymentManager(mock(PaymentManager.class));
+
+        SamsungPay.prewarm(mBraintreeFragment);
+
+        verify(mBraintreeFragment).sendAnalyticsEvent(SamsungPayAnalyticsEvent.PREWARM_SUCCESS.getWireName());
+    }
+
+    @Test
+    public void observeAvailability_emitsCurrentAvailabilityAndThenOnlyChanges() {
+        stubSamsungPayStatus(SpaySdk.SPAY_NOT_READY, SpaySdk.ERROR_SPAY_SETUP_NOT_COMPLETED);
+        final List<SamsungPayAvailability> emitted = new ArrayList<>();
+
+        SamsungPayAvailabilitySubscription subscription = SamsungPay.observeAvailability(mBraintreeFragment,
+                new BraintreeResponseListener<SamsungPayAvailability>() {
+                    @Override
+                    public void onResponse(SamsungPayAvailability availability) {
+                        emitted.add(availability);
+                    }
+                });
+
+        assertEquals(1, emitted.size());
+        assertEquals(SpaySdk.SPAY_NOT_READY, emitted.get(0).getStatus());
+
+        SamsungPayAvailabilityCache.invalidate();
+        assertEquals(1, emitted.size());
+
+        stubSamsungPayStatus(SpaySdk.SPAY_READY);
+        List<CardInfo> cardInfos = new ArrayList<>();
+        cardInfos.add(new CardInfo.Builder().setBrand(SpaySdk.Brand.VISA).build());
+        stubPaymentManagerRequestCardInfo(cardInfos);
+        SamsungPayAvailabilityCache.invalidate();
+
+        assertEquals(2, emitted.size());
+        assertEquals(SpaySdk.SPAY_READY, emitted.get(1).getStatus());
+
+        subscription.unsubscribe();
+    }
+
+    @Test
+    public void observeAvailability_afterUnsubscribe_stopsEmitting() {
+        stubSamsungPayStatus(SpaySdk.SPAY_NOT_READY);
+        final List<SamsungPayAvailability> emitted = new ArrayList<>();
+
+        SamsungPayAvailabilitySubscription subscription = SamsungPay.observeAvailability(mBraintreeFragment,
+                new BraintreeResponseListener<SamsungPayAvailability>() {
+                    @Override
+                    public void onResponse(SamsungPayAvailability availability) {
+                        emitted.add(availability);
+                    }
+                });
+        subscription.unsubscribe();
+
+        stubSamsungPayStatus(SpaySdk.SPAY_NOT_SUPPORTED);
+        SamsungPayAvailabilityCache.invalidate();
+
+        assertEquals(1, emitted.size());
+        assertFalse(subscription.isActive());
+    }
+
+    @Test
+    public void observeAvailability_whenActivityIsDestroyed_endsTheSubscription() {
+        stubSamsungPayStatus(SpaySdk.SPAY_NOT_READY);
+        ActivityController<Activity> controller = Robolectric.buildActivity(Activity.class).create();
+        final List<SamsungPayAvailability> emitted = new ArrayList<>();
+
+        SamsungPayAvailabilitySubscription subscription = SamsungPayAvailabilityMonitor.INSTANCE.add(mBraintreeFragment,
+                controller.get(), new BraintreeResponseListener<SamsungPayAvailability>() {
+                    @Override
+                    public void onResponse(SamsungPayAvailability availability) {
+                        emitted.add(availability);
+                    }
+                });
+        controller.destroy();
+
+        stubSamsungPayStatus(SpaySdk.SPAY_NOT_SUPPORTED);
+        SamsungPayAvailabilityCache.invalidate();
+
+        assertEquals(1, emitted.size());
+        assertFalse(subscription.isActive());
+    }
+
+    @Test
+    public void isReadyToPay_whenCanceled_doesNotCallListenerOrRequestCardInfo() {
+        com.samsung.android.sdk.samsungpay.v2.SamsungPay mockedSamsungPay = mock(com.samsung.android.sdk.samsungpay.v2.SamsungPay.class);
+        stubSamsungPay(mockedSamsungPay);
+        PaymentManager mockedPaymentManager = mock(PaymentManager.class);
+        stubPaymentManager(mockedPaymentManager);
+        CancellationSignal cancellationSignal = new CancellationSignal();
+        final List<SamsungPayAvailability> responses = new ArrayList<>();
+
+        SamsungPay.isReadyToPay(mBraintreeFragment, cancellationSignal, new BraintreeResponseListener<SamsungPayAvailability>() {
+            @Override
+            public void onResponse(SamsungPayAvailability availability) {
+                responses.add(availability);
+            }
+        });
+
+        ArgumentCaptor<StatusListener> statusListenerCaptor = ArgumentCaptor.forClass(StatusListener.class);
+        verify(mockedSamsungPay).getSamsungPayStatus(statusListenerCaptor.capture());
+
+        cancellationSignal.cancel();
+        statusListenerCaptor.getValue().onSuccess(SpaySdk.SPAY_READY, new Bundle());
+
+        assertTrue(responses.isEmpty());
+        verify(mockedPaymentManager, never()).requestCardInfo(any(Bundle.class), any(PaymentManager.CardInfoListener.class));
+    }
+
+    @Test
+    public void isReadyToPay_afterTheOnlyCallerCancels_laterCallersJoinTheRunningLookup() {
+        com.samsung.android.sdk.samsungpay.v2.SamsungPay mockedSamsungPay = mock(com.samsung.android.sdk.samsungpay.v2.SamsungPay.class);
+        stubSamsungPay(mockedSamsungPay);
+        CancellationSignal cancellationSignal = new CancellationSignal();
+        final List<SamsungPayAvailability> responses = new ArrayList<>();
+
+        SamsungPay.isReadyToPay(mBraintreeFragment, cancellationSignal, this.<SamsungPayAvailability>emptyResponse());
+        cancellationSignal.cancel();
+        SamsungPay.isReadyToPay(mBraintreeFragment, new BraintreeResponseListener<SamsungPayAvailability>() {
+            @Override
+            public void onResponse(SamsungPayAvailability availability) {
+                responses.add(availability);
+            }
+        });
+
+        ArgumentCaptor<StatusListener> statusListenerCaptor = ArgumentCaptor.forClass(StatusListener.class);
+        verify(mockedSamsungPay, times(1)).getSamsungPayStatus(statusListenerCaptor.capture());
+
+        statusListenerCaptor.getValue().onSuccess(SpaySdk.SPAY_NOT_READY, new Bundle());
+
+        assertEquals(1, responses.size());
+        assertEquals(SpaySdk.SPAY_NOT_READY, responses.get(0).getStatus());
+    }
+
+    @Test
+    public void isReadyToPay_whenOneOfTwoCallersCancels_stillAnswersTheOther() {
+        com.samsung.android.sdk.samsungpay.v2.SamsungPay mockedSamsungPay = mock(com.samsung.android.sdk.samsungpay.v2.SamsungPay.class);
+        stubSamsungPay(mockedSamsungPay);
+        CancellationSignal cancellationSignal = new CancellationSignal();
+        final List<SamsungPayAvailability> canceledResponses = new ArrayList<>();
+        final List<SamsungPayAvailability> responses = new ArrayList<>();
+
+        SamsungPay.isReadyToPay(mBraintreeFragment, cancellationSignal, new BraintreeResponseListener<SamsungPayAvailability>() {
+            @Override
+            public void onResponse(SamsungPayAvailability availability) {
+                canceledResponses.add(availability);
+            }
+        });
+        SamsungPay.isReadyToPay(mBraintreeFragment, new BraintreeResponseListener<SamsungPayAvailability>() {
+            @Override
+            public void onResponse(SamsungPayAvailability availability) {
+                responses.add(availability);
+            }
+        });
+
+        ArgumentCaptor<StatusListener> statusListenerCaptor = ArgumentCaptor.forClass(StatusListener.class);
+        verify(mockedSamsungPay).getSamsungPayStatus(statusListenerCaptor.capture());
+
+        cancellationSignal.cancel();
+        statusListenerCaptor.getValue().onSuccess(SpaySdk.SPAY_NOT_READY, new Bundle());
+
+        assertTrue(canceledResponses.isEmpty());
+        assertEquals(1, responses.size());
+    }
+
+    @Test
+    public void isReadyToPay_withDeadline_whenSamsungPayDoesNotAnswer_completesWithTimeout() {
+        com.samsung.android.sdk.samsungpay.v2.SamsungPay mockedSamsungPay = mock(com.samsung.android.sdk.samsungpay.v2.SamsungPay.class);
+        stubSamsungPay(mockedSamsungPay);
+        PaymentManager mockedPaymentManager = mock(PaymentManager.class);
+        stubPaymentManager(mockedPaymentManager);
+        SamsungPayAvailabilityTimings.reset();
+        final List<SamsungPayAvailability> responses = new ArrayList<>();
+
+        SamsungPay.isReadyToPay(mBraintreeFragment, 500, new BraintreeResponseListener<SamsungPayAvailability>() {
+            @Override
+            public void onResponse(SamsungPayAvailability availability) {
+                responses.add(availability);
+            }
+        });
+
+        ArgumentCaptor<StatusListener> statusListenerCaptor = ArgumentCaptor.forClass(StatusListener.class);
+        verify(mockedSamsungPay).getSamsungPayStatus(statusListenerCaptor.capture());
+        assertTrue(responses.isEmpty());
+
+        ShadowLooper.idleMainLooper(500, TimeUnit.MILLISECONDS);
+
+        assertEquals(1, responses.size());
+        assertEquals(SpaySdk.SPAY_NOT_READY, responses.get(0).getStatus());
+        assertEquals(SamsungPay.SPAY_READINESS_TIMEOUT, responses.get(0).getReason());
+        assertEquals(1, SamsungPayAvailabilityTimings.getDeadlineExceededCount());
+        verify(mBraintreeFragment).sendAnalyticsEvent(SamsungPayAnalyticsEvent.IS_READY_TO_PAY_TIMED_OUT.getWireName());
+
+        statusListenerCaptor.getValue().onSuccess(SpaySdk.SPAY_READY, new Bundle());
+
+        assertEquals(1, responses.size());
+        verify(mockedPaymentManager, never()).requestCardInfo(any(Bundle.class), any(PaymentManager.CardInfoListener.class));
+    }
+
+    @Test
+    public void isReadyToPay_withDeadline_afterTimeout_startsAFreshLookup() {
+        com.samsung.android.sdk.samsungpay.v2.SamsungPay mockedSamsungPay = mock(com.samsung.android.sdk.samsungpay.v2.SamsungPay.class);
+        stubSamsungPay(mockedSamsungPay);
+
+        SamsungPay.isReadyToPay(mBraintreeFragment, 500, this.<SamsungPayAvailability>emptyResponse());
+        ShadowLooper.idleMainLooper(500, TimeUnit.MILLISECONDS);
+        SamsungPay.isReadyToPay(mBraintreeFragment, this.<SamsungPayAvailability>emptyResponse());
+
+        verify(mockedSamsungPay, times(2)).getSamsungPayStatus(any(StatusListener.class));
+    }
+
+    @Test
+    public void isReadyToPay_whenTheRunningLookupIsTooOld_startsAFreshLookup() {
+        com.samsung.android.sdk.samsungpay.v2.SamsungPay mockedSamsungPay = mock(com.samsung.android.sdk.samsungpay.v2.SamsungPay.class);
+        stubSamsungPay(mockedSamsungPay);
+
+        SamsungPay.isReadyToPay(mBraintreeFragment, this.<SamsungPayAvailability>emptyResponse());
+        SystemClock.sleep(SamsungPayAvailabilityRequest.MAX_AGE_MILLIS - 1);
+        SamsungPay.isReadyToPay(mBraintreeFragment, this.<SamsungPayAvailability>emptyResponse());
+
+        verify(mockedSamsungPay, times(1)).getSamsungPayStatus(any(StatusListener.class));
 
+        SystemClock.sleep(1);
         SamsungPay.isReadyToPay(mBraintreeFragment, this.<SamsungPayAvailability>emptyResponse());
 
-        ArgumentCaptor<Exception> exceptionCaptor = ArgumentCaptor.forClass(Exception.class);
+        verify(mockedSamsungPay, times(2)).getSamsungPayStatus(any(StatusListener.class));
+    }
 
-        verify(mBraintreeFragment).postCallback(exceptionCaptor.capture());
+    @Test
+    public void isReadyToPay_withDeadline_whenSamsungPayFails_completesOnceWithErrorCode() {
+        com.samsung.android.sdk.samsungpay.v2.SamsungPay mockedSamsungPay = mock(com.samsung.android.sdk.samsungpay.v2.SamsungPay.class);
+        stubSamsungPay(mockedSamsungPay);
+        SamsungPayAvailabilityTimings.reset();
+        final List<SamsungPayAvailability> responses = new ArrayList<>();
 
-        Exception capturedException = exceptionCaptor.getValue();
+        SamsungPay.isReadyToPay(mBraintreeFragment, 500, new BraintreeResponseListener<SamsungPayAvailability>() {
+            @Override
+            public void onResponse(SamsungPayAvailability availability) {
+                responses.add(availability);
+            }
+        });
 
-        assertTrue(capturedException instanceof SamsungPayException);
-        assertEquals(-1, ((SamsungPayException) capturedException).getCode());
-        assertNotNull(((SamsungPayException) capturedException).getExtras());
+        ArgumentCaptor<StatusListener> statusListenerCaptor = ArgumentCaptor.forClass(StatusListener.class);
+        verify(mockedSamsungPay).getSamsungPayStatus(statusListenerCaptor.capture());
+        statusListenerCaptor.getValue().onFail(SpaySdk.ERROR_DEVICE_NOT_SAMSUNG, new Bundle());
+        ShadowLooper.idleMainLooper(500, TimeUnit.MILLISECONDS);
+
+        assertEquals(1, responses.size());
+        assertEquals(SpaySdk.SPAY_NOT_READY, responses.get(0).getStatus());
+        assertEquals(SpaySdk.ERROR_DEVICE_NOT_SAMSUNG, responses.get(0).getReason());
+        assertEquals(0, SamsungPayAvailabilityTimings.getDeadlineExceededCount());
+        verify(mBraintreeFragment).postCallback(any(SamsungPayException.class));
     }
 
     @Test
-    public void isReadyToPay_whenCardInfoRequestFails_sendsAnalyticEvent() {
-        stubSamsungPayStatus(SpaySdk.SPAY_READY);
-        stubPaymentManagerRequestCardInfo(-1);
+    public void isReadyToPay_withDeadline_whenSamsungPayAnswersInTime_doesNotTimeOut() {
+        stubSamsungPayStatus(SpaySdk.SPAY_NOT_SUPPORTED);
+        SamsungPayAvailabilityTimings.reset();
+        final List<SamsungPayAvailability> responses = new ArrayList<>();
 
-        SamsungPay.isReadyToPay(mBraintreeFragment, this.<SamsungPayAvailability>emptyResponse());
+        SamsungPay.isReadyToPay(mBraintreeFragment, 500, new BraintreeResponseListener<SamsungPayAvailability>() {
+            @Override
+            public void onResponse(SamsungPayAvailability availability) {
+                responses.add(availability);
+            }
+        });
+        ShadowLooper.idleMainLooper(500, TimeUnit.MILLISECONDS);
 
-        verify(mBraintreeFragment).sendAnalyticsEvent("samsung-pay.request-card-info.failed");
+        assertEquals(1, responses.size());
+        assertEquals(SpaySdk.SPAY_NOT_SUPPORTED, responses.get(0).getStatus());
+        assertEquals(0, SamsungPayAvailabilityTimings.getDeadlineExceededCount());
     }
 
     @Test
@@ -416,11 +996,23 @@ public class SamsungPayUnitTest {
         latch.await();
     }
 
+    @Test
+    public void createPaymentInfo_recordsMetrics() {
+        SamsungPayInMemoryMetrics metrics = new SamsungPayInMemoryMetrics();
+        SamsungPay.setMetrics(metrics);
+
+        SamsungPay.createPaymentInfo(mBraintreeFragment, this.<CustomSheetPaymentInfo.Builder>emptyResponse());
+
+        assertEquals(1, metrics.getCallCount(SamsungPayMetrics.Operation.CREATE_PAYMENT_INFO));
+        assertEquals(1, metrics.getCount(SamsungPayMetrics.Operation.CREATE_PAYMENT_INFO,
+                SamsungPayMetrics.Outcome.SUCCESS));
+    }
+
     @Test
     public void createPaymentInfo_sendsAnalyticEvent() {
         SamsungPay.createPaymentInfo(mBraintreeFragment, this.<CustomSheetPaymentInfo.Builder>emptyResponse());
 
-        verify(mBraintreeFragment).sendAnalyticsEvent("samsung-pay.create-payment-info.success");
+        verify(mBraintreeFragment).sendAnalyticsEvent(SamsungPayAnalyticsEvent.CREATE_PAYMENT_INFO_SUCCESS.getWireName());
     }
 
     @Test
@@ -458,7 +1050,7 @@ public class SamsungPayUnitTest {
         stubPaymentManager(mockedManager);
         SamsungPay.createPaymentManager(mBraintreeFragment, this.<PaymentManager>emptyResponse());
 
-        verify(mBraintreeFragment).sendAnalyticsEvent("samsung-pay.create-payment-manager.success");
+        verify(mBraintreeFragment).sendAnalyticsEvent(SamsungPayAnalyticsEvent.CREATE_PAYMENT_MANAGER_SUCCESS.getWireName());
     }
 
     @Test
@@ -472,6 +1064,150 @@ public class SamsungPayUnitTest {
         verify(mockedManager).startInAppPayWithCustomSheet(eq(paymentInfo), any(PaymentManager.CustomSheetTransactionInfoListener.class));
     }
 
+    @Test
+    public void requestPayment_whenRepeatedWithSameListener_joinsTheOpenSheet() {
+        PaymentManager mockedPaymentManager = mock(PaymentManager.class);
+        SamsungPayCustomTransactionUpdateListener mockedListener = mock(SamsungPayCustomTransactionUpdateListener.class);
+
+        SamsungPay.requestPayment(mBraintreeFragment, mockedPaymentManager, getCustomSheetPaymentInfo(), mockedListener);
+        SamsungPay.requestPayment(mBraintreeFragment, mockedPaymentManager, getCustomSheetPaymentInfo(), mockedListener);
+
+        verify(mockedPaymentManager, times(1)).startInAppPayWithCustomSheet(any(CustomSheetPaymentInfo.class),
+                any(PaymentManager.CustomSheetTransactionInfoListener.class));
+        verify(mBraintreeFragment, never()).postCallback(any(Exception.class));
+        verify(mBraintreeFragment).sendAnalyticsEvent(SamsungPayAnalyticsEvent.REQUEST_PAYMENT_JOINED.getWireName());
+    }
+
+    @Test
+    public void requestPayment_whileAnotherPaymentIsOpen_postsPaymentInProgressError() {
+        PaymentManager mockedPaymentManager = mock(PaymentManager.class);
+        ArgumentCaptor<Exception> exceptionCaptor = ArgumentCaptor.forClass(Exception.class);
+
+        SamsungPay.requestPayment(mBraintreeFragment, mockedPaymentManager, getCustomSheetPaymentInfo(),
+                mock(SamsungPayCustomTransactionUpdateListener.class));
+        SamsungPay.requestPayment(mBraintreeFragment, mockedPaymentManager, getCustomSheetPaymentInfo(),
+                mock(SamsungPayCustomTransactionUpdateListener.class));
+
+        verify(mockedPaymentManager, times(1)).startInAppPayWithCustomSheet(any(CustomSheetPaymentInfo.class),
+                any(PaymentManager.CustomSheetTransactionInfoListener.class));
+        verify(mBraintreeFragment).postCallback(exceptionCaptor.capture());
+        assertEquals(SamsungPay.SPAY_PAYMENT_IN_PROGRESS,
+                ((SamsungPayException) exceptionCaptor.getValue()).getCode());
+        verify(mBraintreeFragment).sendAnalyticsEvent(SamsungPayAnalyticsEvent.REQUEST_PAYMENT_REJECTED.getWireName());
+    }
+
+    @Test
+    public void requestPayment_afterPreviousPaymentIsCanceled_startsANewSheet() {
+        PaymentManager mockedPaymentManager = mock(PaymentManager.class);
+        ArgumentCaptor<PaymentManager.CustomSheetTransactionInfoListener> listenerCaptor = ArgumentCaptor.forClass(PaymentManager.CustomSheetTransactionInfoListener.class);
+
+        SamsungPay.requestPayment(mBraintreeFragment, mockedPaymentManager, getCustomSheetPaymentInfo(),
+                mock(SamsungPayCustomTransactionUpdateListener.class));
+        verify(mockedPaymentManager).startInAppPayWithCustomSheet(any(CustomSheetPaymentInfo.class),
+                listenerCaptor.capture());
+        listenerCaptor.getValue().onFailure(SpaySdk.ERROR_USER_CANCELED, null);
+
+        SamsungPay.requestPayment(mBraintreeFragment, mockedPaymentManager, getCustomSheetPaymentInfo(),
+                mock(SamsungPayCustomTransactionUpdateListener.class));
+
+        verify(mockedPaymentManager, times(2)).startInAppPayWithCustomSheet(any(CustomSheetPaymentInfo.class),
+                any(PaymentManager.CustomSheetTransactionInfoListener.class));
+    }
+
+    @Test
+    public void requestPayment_whenSamsungPayNeverCallsBack_releasesTheGuardOnceStale() {
+        PaymentManager mockedPaymentManager = mock(PaymentManager.class);
+
+        SamsungPay.requestPayment(mBraintreeFragment, mockedPaymentManager, getCustomSheetPaymentInfo(),
+                mock(SamsungPayCustomTransactionUpdateListener.class));
+        SystemClock.sleep(SamsungPayPaymentSessionGuard.STALE_AFTER_MILLIS - 1);
+        SamsungPay.requestPayment(mBraintreeFragment, mockedPaymentManager, getCustomSheetPaymentInfo(),
+                mock(SamsungPayCustomTransactionUpdateListener.class));
+
+        verify(mockedPaymentManager, times(1)).startInAppPayWithCustomSheet(any(CustomSheetPaymentInfo.class),
+                any(PaymentManager.CustomSheetTransactionInfoListener.class));
+
+        SystemClock.sleep(1);
+        SamsungPay.requestPayment(mBraintreeFragment, mockedPaymentManager, getCustomSheetPaymentInfo(),
+                mock(SamsungPayCustomTransactionUpdateListener.class));
+
+        verify(mockedPaymentManager, times(2)).startInAppPayWithCustomSheet(any(CustomSheetPaymentInfo.class),
+                any(PaymentManager.CustomSheetTransactionInfoListener.class));
+        verify(mBraintreeFragment, times(1)).postCallback(any(Exception.class));
+    }
+
+    @Test
+    public void requestPayment_whenStartingTheSheetThrows_releasesTheGuard() {
+        PaymentManager mockedPaymentManager = mock(PaymentManager.class);
+        PowerMockito.doThrow(new IllegalStateException()).doNothing().when(mockedPaymentManager).startInAppPayWithCustomSheet(
+                any(CustomSheetPaymentInfo.class), any(PaymentManager.CustomSheetTransactionInfoListener.class));
+
+        try {
+            SamsungPay.requestPayment(mBraintreeFragment, mockedPaymentManager, getCustomSheetPaymentInfo(),
+                    mock(SamsungPayCustomTransactionUpdateListener.class));
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException ignored) {}
+
+        SamsungPay.requestPayment(mBraintreeFragment, mockedPaymentManager, getCustomSheetPaymentInfo(),
+                mock(SamsungPayCustomTransactionUpdateListener.class));
+
+        verify(mockedPaymentManager, times(2)).startInAppPayWithCustomSheet(any(CustomSheetPaymentInfo.class),
+                any(PaymentManager.CustomSheetTransactionInfoListener.class));
+        verify(mBraintreeFragment, never()).postCallback(any(Exception.class));
+    }
+
+    @Test
+    public void requestPayment_onCardInfoUpdated_coalescesRapidUpdatesAndSendsTheLatest() {
+        SamsungPay.setSheetUpdateCoalescingWindow(100);
+        SamsungPayTransactionStats.reset();
+        PaymentManager mockedPaymentManager = mock(PaymentManager.class);
+        ArgumentCaptor<PaymentManager.CustomSheetTransactionInfoListener> listenerCaptor = ArgumentCaptor.forClass(PaymentManager.CustomSheetTransactionInfoListener.class);
+        SamsungPayCustomTransactionUpdateListener mockedListener = mock(SamsungPayCustomTransactionUpdateListener.class);
+
+        SamsungPay.requestPayment(mBraintreeFragment, mockedPaymentManager, getCustomSheetPaymentInfo(), mockedListener);
+        verify(mockedPaymentManager).startInAppPayWithCustomSheet(any(CustomSheetPaymentInfo.class),
+                listenerCaptor.capture());
+
+        CustomSheet first = new CustomSheet();
+        CustomSheet second = new CustomSheet();
+        CustomSheet third = new CustomSheet();
+        CardInfo info = new CardInfo.Builder().build();
+        listenerCaptor.getValue().onCardInfoUpdated(info, first);
+        listenerCaptor.getValue().onCardInfoUpdated(info, second);
+        listenerCaptor.getValue().onCardInfoUpdated(info, third);
+
+        verify(mockedPaymentManager).updateSheet(first);
+        verify(mockedPaymentManager, never()).updateSheet(third);
+
+        ShadowLooper.idleMainLooper(100, TimeUnit.MILLISECONDS);
+
+        verify(mockedPaymentManager).updateSheet(third);
+        verify(mockedPaymentManager, never()).updateSheet(second);
+        assertEquals(1, SamsungPayTransactionStats.getSkippedSheetUpdateCount());
+    }
+
+    @Test
+    public void requestPayment_onCardInfoUpdated_dropsPendingUpdateWhenTheFlowEnds() {
+        SamsungPay.setSheetUpdateCoalescingWindow(100);
+        PaymentManager mockedPaymentManager = mock(PaymentManager.class);
+        ArgumentCaptor<PaymentManager.CustomSheetTransactionInfoListener> listenerCaptor = ArgumentCaptor.forClass(PaymentManager.CustomSheetTransactionInfoListener.class);
+        SamsungPayCustomTransactionUpdateListener mockedListener = mock(SamsungPayCustomTransactionUpdateListener.class);
+
+        SamsungPay.requestPayment(mBraintreeFragment, mockedPaymentManager, getCustomSheetPaymentInfo(), mockedListener);
+        verify(mockedPaymentManager).startInAppPayWithCustomSheet(any(CustomSheetPaymentInfo.class),
+                listenerCaptor.capture());
+
+        CustomSheet first = new CustomSheet();
+        CustomSheet second = new CustomSheet();
+        CardInfo info = new CardInfo.Builder().build();
+        listenerCaptor.getValue().onCardInfoUpdated(info, first);
+        listenerCaptor.getValue().onCardInfoUpdated(info, second);
+        listenerCaptor.getValue().onFailure(SpaySdk.ERROR_USER_CANCELED, null);
+        ShadowLooper.idleMainLooper(100, TimeUnit.MILLISECONDS);
+
+        verify(mockedPaymentManager, never()).updateSheet(second);
+    }
+
     @Test
     public void requestPayment_onCardInfoUpdated_withNullCardInfo_doesNothing() {
         PaymentManager mockedPaymentManager = mock(PaymentManager.class);
@@ -520,6 +1256,87 @@ public class SamsungPayUnitTest {
         verify(mockedPaymentManager).updateSheet(eq(sheet));
     }
 
+    @Test
+    public void requestPayment_withAsyncListener_sendsSheetWhenUpdateCompletes() {
+        PaymentManager mockedPaymentManager = mock(PaymentManager.class);
+        ArgumentCaptor<PaymentManager.CustomSheetTransactionInfoListener> listenerCaptor = ArgumentCaptor.forClass(PaymentManager.CustomSheetTransactionInfoListener.class);
+        ArgumentCaptor<SamsungPaySheetUpdate> updateCaptor = ArgumentCaptor.forClass(SamsungPaySheetUpdate.class);
+        SamsungPayAsyncTransactionUpdateListener mockedListener = mock(SamsungPayAsyncTransactionUpdateListener.class);
+
+        SamsungPay.requestPayment(mBraintreeFragment, mockedPaymentManager, getCustomSheetPaymentInfo(), mockedListener);
+        verify(mockedPaymentManager).startInAppPayWithCustomSheet(any(CustomSheetPaymentInfo.class),
+                listenerCaptor.capture());
+
+        CustomSheet sheet = new CustomSheet();
+        CardInfo info = new CardInfo.Builder().build();
+        listenerCaptor.getValue().onCardInfoUpdated(info, sheet);
+
+        verify(mockedListener).onCardInfoUpdated(eq(info), updateCaptor.capture());
+        verify(mockedPaymentManager, never()).updateSheet(any(CustomSheet.class));
+
+        assertTrue(updateCaptor.getValue().complete());
+        assertFalse(updateCaptor.getValue().complete());
+        ShadowLooper.idleMainLooper(SamsungPay.DEFAULT_CARD_UPDATE_DEADLINE_MILLIS, TimeUnit.MILLISECONDS);
+
+        verify(mockedPaymentManager, times(1)).updateSheet(sheet);
+    }
+
+    @Test
+    public void requestPayment_withAsyncListener_sendsSheetUnchangedWhenDeadlinePasses() {
+        SamsungPayTransactionStats.reset();
+        PaymentManager mockedPaymentManager = mock(PaymentManager.class);
+        ArgumentCaptor<PaymentManager.CustomSheetTransactionInfoListener> listenerCaptor = ArgumentCaptor.forClass(PaymentManager.CustomSheetTransactionInfoListener.class);
+        ArgumentCaptor<SamsungPaySheetUpdate> updateCaptor = ArgumentCaptor.forClass(SamsungPaySheetUpdate.class);
+        SamsungPayAsyncTransactionUpdateListener mockedListener = mock(SamsungPayAsyncTransactionUpdateListener.class);
+
+        SamsungPay.requestPayment(mBraintreeFragment, mockedPaymentManager, getCustomSheetPaymentInfo(), mockedListener,
+                500);
+        verify(mockedPaymentManager).startInAppPayWithCustomSheet(any(CustomSheetPaymentInfo.class),
+                listenerCaptor.capture());
+
+        CustomSheet sheet = new CustomSheet();
+        listenerCaptor.getValue().onCardInfoUpdated(new CardInfo.Builder().build(), sheet);
+        verify(mockedListener).onCardInfoUpdated(any(CardInfo.class), updateCaptor.capture());
+
+        ShadowLooper.idleMainLooper(499, TimeUnit.MILLISECONDS);
+        verify(mockedPaymentManager, never()).updateSheet(any(CustomSheet.class));
+
+        ShadowLooper.idleMainLooper(1, TimeUnit.MILLISECONDS);
+        verify(mockedPaymentManager).updateSheet(sheet);
+        assertTrue(updateCaptor.getValue().isCompleted());
+        assertFalse(updateCaptor.getValue().complete());
+        verify(mockedPaymentManager, times(1)).updateSheet(sheet);
+        assertEquals(1, SamsungPayTransactionStats.getCardUpdateDeadlineExceededCount());
+        verify(mBraintreeFragment).sendAnalyticsEvent(SamsungPayAnalyticsEvent.CARD_INFO_UPDATED_TIMED_OUT.getWireName());
+    }
+
+    @Test
+    public void requestPayment_withAsyncListener_dropsSupersededUpdate() {
+        SamsungPay.setSheetUpdateCoalescingWindow(0);
+        PaymentManager mockedPaymentManager = mock(PaymentManager.class);
+        ArgumentCaptor<PaymentManager.CustomSheetTransactionInfoListener> listenerCaptor = ArgumentCaptor.forClass(PaymentManager.CustomSheetTransactionInfoListener.class);
+        ArgumentCaptor<SamsungPaySheetUpdate> updateCaptor = ArgumentCaptor.forClass(SamsungPaySheetUpdate.class);
+        SamsungPayAsyncTransactionUpdateListener mockedListener = mock(SamsungPayAsyncTransactionUpdateListener.class);
+
+        SamsungPay.requestPayment(mBraintreeFragment, mockedPaymentManager, getCustomSheetPaymentInfo(), mockedListener);
+        verify(mockedPaymentManager).startInAppPayWithCustomSheet(any(CustomSheetPaymentInfo.class),
+                listenerCaptor.capture());
+
+        CustomSheet first = new CustomSheet();
+        CustomSheet second = new CustomSheet();
+        CardInfo info = new CardInfo.Builder().build();
+        listenerCaptor.getValue().onCardInfoUpdated(info, first);
+        listenerCaptor.getValue().onCardInfoUpdated(info, second);
+        verify(mockedListener, times(2)).onCardInfoUpdated(eq(info), updateCaptor.capture());
+
+        assertFalse(updateCaptor.getAllValues().get(0).complete());
+        assertTrue(updateCaptor.getAllValues().get(1).complete());
+        ShadowLooper.idleMainLooper(SamsungPay.DEFAULT_CARD_UPDATE_DEADLINE_MILLIS, TimeUnit.MILLISECONDS);
+
+        verify(mockedPaymentManager, never()).updateSheet(first);
+        verify(mockedPaymentManager, times(1)).updateSheet(second);
+    }
+
     @Test
     public void requestPayment_onFailure_postsException() {
         PaymentManager mockedPaymentManager = mock(PaymentManager.class);
@@ -565,7 +1382,7 @@ public class SamsungPayUnitTest {
 
         listenerCaptor.getValue().onFailure(SpaySdk.ERROR_NO_NETWORK, null);
 
-        verify(mBraintreeFragment).sendAnalyticsEvent("samsung-pay.request-payment.failed");
+        verify(mBraintreeFragment).sendAnalyticsEvent(SamsungPayAnalyticsEvent.REQUEST_PAYMENT_FAILED.getWireName());
     }
 
     @Test
@@ -593,6 +1410,42 @@ public class SamsungPayUnitTest {
         assertEquals(BraintreeRequestCodes.SAMSUNG_PAY, capturedCode);
     }
 
+    @Test
+    public void requestPayment_onFailureWhenUserCanceled_recordsCanceledMetric() {
+        SamsungPayInMemoryMetrics metrics = new SamsungPayInMemoryMetrics();
+        SamsungPay.setMetrics(metrics);
+        PaymentManager mockedPaymentManager = mock(PaymentManager.class);
+        ArgumentCaptor<PaymentManager.CustomSheetTransactionInfoListener> listenerCaptor = ArgumentCaptor.forClass(PaymentManager.CustomSheetTransactionInfoListener.class);
+
+        SamsungPay.requestPayment(mBraintreeFragment, mockedPaymentManager, getCustomSheetPaymentInfo(),
+                mock(SamsungPayCustomTransactionUpdateListener.class));
+        verify(mockedPaymentManager).startInAppPayWithCustomSheet(any(CustomSheetPaymentInfo.class),
+                listenerCaptor.capture());
+        SystemClock.sleep(300);
+        listenerCaptor.getValue().onFailure(SpaySdk.ERROR_USER_CANCELED, null);
+
+        assertEquals(1, metrics.getCallCount(SamsungPayMetrics.Operation.REQUEST_PAYMENT));
+        assertEquals(1, metrics.getCount(SamsungPayMetrics.Operation.REQUEST_PAYMENT,
+                SamsungPayMetrics.Outcome.CANCELED));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(300), metrics.getTotalNanos(
+                SamsungPayMetrics.Operation.REQUEST_PAYMENT, SamsungPayMetrics.Outcome.CANCELED));
+    }
+
+    @Test
+    public void requestPayment_countsJoinedAndRejectedCalls() {
+        SamsungPayInMemoryMetrics metrics = new SamsungPayInMemoryMetrics();
+        SamsungPay.setMetrics(metrics);
+        PaymentManager mockedPaymentManager = mock(PaymentManager.class);
+        SamsungPayCustomTransactionUpdateListener mockedListener = mock(SamsungPayCustomTransactionUpdateListener.class);
+
+        SamsungPay.requestPayment(mBraintreeFragment, mockedPaymentManager, getCustomSheetPaymentInfo(), mockedListener);
+        SamsungPay.requestPayment(mBraintreeFragment, mockedPaymentManager, getCustomSheetPaymentInfo(), mockedListener);
+        SamsungPay.requestPayment(mBraintreeFragment, mockedPaymentManager, getCustomSheetPaymentInfo(),
+                mock(SamsungPayCustomTransactionUpdateListener.class));
+
+        assertEquals(3, metrics.getCallCount(SamsungPayMetrics.Operation.REQUEST_PAYMENT));
+    }
+
     @Test
     public void requestPayment_onFailureWhenUserCanceled_sendsAnalyticEvent() {
         PaymentManager mockedPaymentManager = mock(PaymentManager.class);
@@ -611,11 +1464,58 @@ public class SamsungPayUnitTest {
 
         listenerCaptor.getValue().onFailure(SpaySdk.ERROR_USER_CANCELED, null);
 
-        verify(mBraintreeFragment).sendAnalyticsEvent("samsung-pay.request-payment.user-canceled");
+        verify(mBraintreeFragment).sendAnalyticsEvent(SamsungPayAnalyticsEvent.REQUEST_PAYMENT_USER_CANCELED.getWireName());
+    }
+
+    @Test
+    public void requestPayment_whenTokenized_reportsTimingsForEachPhase() {
+        SamsungPay.setBackgroundExecutor(directExecutor());
+        SamsungPay.setSheetUpdateCoalescingWindow(0);
+        final List<SamsungPayPaymentTimings> reported = new ArrayList<>();
+        SamsungPay.setPaymentTimingsListener(new BraintreeResponseListener<SamsungPayPaymentTimings>() {
+            @Override
+            public void onResponse(SamsungPayPaymentTimings timings) {
+                reported.add(timings);
+            }
+        });
+        PaymentManager mockedPaymentManager = mock(PaymentManager.class);
+        ArgumentCaptor<PaymentManager.CustomSheetTransactionInfoListener> listenerCaptor = ArgumentCaptor.forClass(PaymentManager.CustomSheetTransactionInfoListener.class);
+        ArgumentCaptor<SamsungPaySheetUpdate> updateCaptor = ArgumentCaptor.forClass(SamsungPaySheetUpdate.class);
+        SamsungPayAsyncTransactionUpdateListener mockedListener = mock(SamsungPayAsyncTransactionUpdateListener.class);
+
+        SamsungPay.requestPayment(mBraintreeFragment, mockedPaymentManager, getCustomSheetPaymentInfo(), mockedListener);
+        verify(mockedPaymentManager).startInAppPayWithCustomSheet(any(CustomSheetPaymentInfo.class),
+                listenerCaptor.capture());
+
+        SystemClock.sleep(200);
+        listenerCaptor.getValue().onCardInfoUpdated(new CardInfo.Builder().build(), new CustomSheet());
+        verify(mockedListener).onCardInfoUpdated(any(CardInfo.class), updateCaptor.capture());
+        SystemClock.sleep(50);
+        updateCaptor.getValue().complete();
+        SystemClock.sleep(1000);
+        String credential = stringFromFixture("payment_methods/samsung_pay_response.json");
+        listenerCaptor.getValue().onSuccess(null, credential, null);
+        listenerCaptor.getValue().onSuccess(null, credential, null);
+        listenerCaptor.getValue().onFailure(SpaySdk.ERROR_NO_NETWORK, null);
+
+        assertEquals(1, reported.size());
+        SamsungPayPaymentTimings timings = reported.get(0);
+        assertEquals(SamsungPayPaymentPhase.TOKENIZED, timings.getFinalPhase());
+        assertEquals(6, timings.getTransitionCount());
+        assertEquals(SamsungPayPaymentPhase.SHEET_OPENING, timings.getPhase(0));
+        assertEquals(SamsungPayPaymentPhase.CARD_UPDATING, timings.getPhase(2));
+        assertEquals(SamsungPayPaymentPhase.AUTHORIZING, timings.getPhase(4));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(50),
+                timings.getPhaseNanos(SamsungPayPaymentPhase.CARD_UPDATING));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1200),
+                timings.getPhaseNanos(SamsungPayPaymentPhase.SHEET_SHOWN));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1250), timings.getTotalNanos());
+        assertEquals(0, timings.getRejectedTransitionCount());
     }
 
     @Test
     public void requestPayment_onSuccess_postsPaymentMethodNonce() {
+        SamsungPay.setBackgroundExecutor(directExecutor());
         PaymentManager mockedPaymentManager = mock(PaymentManager.class);
 
         PowerMockito.doNothing().when(mockedPaymentManager)
@@ -657,6 +1557,7 @@ public class SamsungPayUnitTest {
 
     @Test
     public void requestPayment_onSuccess_sendsAnalyticEvent() {
+        SamsungPay.setBackgroundExecutor(directExecutor());
         PaymentManager mockedPaymentManager = mock(PaymentManager.class);
 
         PowerMockito.doNothing().when(mockedPaymentManager)
@@ -673,7 +1574,120 @@ public class SamsungPayUnitTest {
 
         listenerCaptor.getValue().onSuccess(null, stringFromFixture("payment_methods/samsung_pay_response.json"), null);
 
-        verify(mBraintreeFragment).sendAnalyticsEvent("samsung-pay.request-payment.success");
+        verify(mBraintreeFragment).sendAnalyticsEvent(SamsungPayAnalyticsEvent.REQUEST_PAYMENT_SUCCESS.getWireName());
+    }
+
+    @Test
+    public void requestPayment_onSuccess_parsesOnBackgroundExecutorThenPostsNonceBeforeMerchantCallback() {
+        final List<Runnable> queued = new ArrayList<>();
+        SamsungPay.setBackgroundExecutor(new Executor() {
+            @Override
+            public void execute(Runnable runnable) {
+                queued.add(runnable);
+            }
+        });
+        PaymentManager mockedPaymentManager = mock(PaymentManager.class);
+        ArgumentCaptor<PaymentManager.CustomSheetTransactionInfoListener> listenerCaptor = ArgumentCaptor.forClass(PaymentManager.CustomSheetTransactionInfoListener.class);
+        SamsungPayCustomTransactionUpdateListener mockedListener = mock(SamsungPayCustomTransactionUpdateListener.class);
+
+        SamsungPay.requestPayment(mBraintreeFragment, mockedPaymentManager, getCustomSheetPaymentInfo(), mockedListener);
+        verify(mockedPaymentManager).startInAppPayWithCustomSheet(any(CustomSheetPaymentInfo.class),
+                listenerCaptor.capture());
+
+        CustomSheetPaymentInfo response = getCustomSheetPaymentInfo();
+        listenerCaptor.getValue().onSuccess(response, stringFromFixture("payment_methods/samsung_pay_response.json"), null);
+
+        assertEquals(1, queued.size());
+        verify(mBraintreeFragment, never()).postCallback(any(SamsungPayNonce.class));
+        verify(mockedListener, never()).onSuccess(any(CustomSheetPaymentInfo.class), any(Bundle.class));
+
+        queued.get(0).run();
+
+        InOrder inOrder = inOrder(mBraintreeFragment, mockedListener);
+        inOrder.verify(mBraintreeFragment).postCallback(any(SamsungPayNonce.class));
+        inOrder.verify(mockedListener).onSuccess(eq(response), any(Bundle.class));
+    }
+
+    @Test
+    public void requestPayment_onSuccess_withMalformedCredential_postsErrorAndSkipsMerchantCallback() {
+        SamsungPay.setBackgroundExecutor(directExecutor());
+        PaymentManager mockedPaymentManager = mock(PaymentManager.class);
+        ArgumentCaptor<PaymentManager.CustomSheetTransactionInfoListener> listenerCaptor = ArgumentCaptor.forClass(PaymentManager.CustomSheetTransactionInfoListener.class);
+        SamsungPayCustomTransactionUpdateListener mockedListener = mock(SamsungPayCustomTransactionUpdateListener.class);
+
+        SamsungPay.requestPayment(mBraintreeFragment, mockedPaymentManager, getCustomSheetPaymentInfo(), mockedListener);
+        verify(mockedPaymentManager).startInAppPayWithCustomSheet(any(CustomSheetPaymentInfo.class),
+                listenerCaptor.capture());
+
+        listenerCaptor.getValue().onSuccess(getCustomSheetPaymentInfo(), "{\"data\": 1}", null);
+
+        verify(mBraintreeFragment).postCallback(any(Exception.class));
+        verify(mBraintreeFragment).sendAnalyticsEvent(SamsungPayAnalyticsEvent.REQUEST_PAYMENT_FAILED.getWireName());
+        verify(mockedListener, never()).onSuccess(any(CustomSheetPaymentInfo.class), any(Bundle.class));
+    }
+
+    @Test
+    public void requestPayment_onSuccess_withoutCredential_postsErrorAndSkipsMerchantCallback() {
+        PaymentManager mockedPaymentManager = mock(PaymentManager.class);
+        ArgumentCaptor<PaymentManager.CustomSheetTransactionInfoListener> listenerCaptor = ArgumentCaptor.forClass(PaymentManager.CustomSheetTransactionInfoListener.class);
+        SamsungPayCustomTransactionUpdateListener mockedListener = mock(SamsungPayCustomTransactionUpdateListener.class);
+
+        SamsungPay.requestPayment(mBraintreeFragment, mockedPaymentManager, getCustomSheetPaymentInfo(), mockedListener);
+        verify(mockedPaymentManager).startInAppPayWithCustomSheet(any(CustomSheetPaymentInfo.class),
+                listenerCaptor.capture());
+
+        listenerCaptor.getValue().onSuccess(getCustomSheetPaymentInfo(), null, null);
+
+        verify(mBraintreeFragment).postCallback(any(JSONException.class));
+        verify(mBraintreeFragment).sendAnalyticsEvent(SamsungPayAnalyticsEvent.REQUEST_PAYMENT_FAILED.getWireName());
+        verify(mockedListener, never()).onSuccess(any(CustomSheetPaymentInfo.class), any(Bundle.class));
+    }
+
+    @Test
+    public void requestPayment_onSuccess_dropsRepeatedCredential() {
+        SamsungPay.setBackgroundExecutor(directExecutor());
+        SamsungPayTransactionStats.reset();
+        PaymentManager mockedPaymentManager = mock(PaymentManager.class);
+        ArgumentCaptor<PaymentManager.CustomSheetTransactionInfoListener> listenerCaptor = ArgumentCaptor.forClass(PaymentManager.CustomSheetTransactionInfoListener.class);
+        SamsungPayCustomTransactionUpdateListener mockedListener = mock(SamsungPayCustomTransactionUpdateListener.class);
+
+        SamsungPay.requestPayment(mBraintreeFragment, mockedPaymentManager, getCustomSheetPaymentInfo(), mockedListener);
+        verify(mockedPaymentManager).startInAppPayWithCustomSheet(any(CustomSheetPaymentInfo.class),
+                listenerCaptor.capture());
+
+        String credential = stringFromFixture("payment_methods/samsung_pay_response.json");
+        listenerCaptor.getValue().onSuccess(getCustomSheetPaymentInfo(), credential, null);
+        listenerCaptor.getValue().onSuccess(getCustomSheetPaymentInfo(), new String(credential), null);
+
+        verify(mBraintreeFragment, times(1)).postCallback(any(SamsungPayNonce.class));
+        verify(mockedListener, times(1)).onSuccess(any(CustomSheetPaymentInfo.class), any(Bundle.class));
+        verify(mBraintreeFragment).sendAnalyticsEvent(SamsungPayAnalyticsEvent.REQUEST_PAYMENT_DUPLICATE_SUCCESS.getWireName());
+        assertEquals(1, SamsungPayTransactionStats.getDuplicateSuccessCount());
+    }
+
+    @Test
+    public void requestPayment_onFailure_afterSuccess_isDropped() {
+        SamsungPay.setBackgroundExecutor(directExecutor());
+        SamsungPayTransactionStats.reset();
+        PaymentManager mockedPaymentManager = mock(PaymentManager.class);
+        ArgumentCaptor<PaymentManager.CustomSheetTransactionInfoListener> listenerCaptor = ArgumentCaptor.forClass(PaymentManager.CustomSheetTransactionInfoListener.class);
+        SamsungPayCustomTransactionUpdateListener mockedListener = mock(SamsungPayCustomTransactionUpdateListener.class);
+
+        SamsungPay.requestPayment(mBraintreeFragment, mockedPaymentManager, getCustomSheetPaymentInfo(), mockedListener);
+        verify(mockedPaymentManager).startInAppPayWithCustomSheet(any(CustomSheetPaymentInfo.class),
+                listenerCaptor.capture());
+
+        listenerCaptor.getValue().onSuccess(getCustomSheetPaymentInfo(),
+                stringFromFixture("payment_methods/samsung_pay_response.json"), null);
+        listenerCaptor.getValue().onFailure(SpaySdk.ERROR_NO_NETWORK, null);
+        listenerCaptor.getValue().onFailure(SpaySdk.ERROR_USER_CANCELED, null);
+
+        verify(mBraintreeFragment).postCallback(any(SamsungPayNonce.class));
+        verify(mBraintreeFragment, never()).postCallback(any(Exception.class));
+        verify(mBraintreeFragment, never()).postCancelCallback(anyInt());
+        verify(mBraintreeFragment, never()).sendAnalyticsEvent(SamsungPayAnalyticsEvent.REQUEST_PAYMENT_FAILED.getWireName());
+        verify(mBraintreeFragment, never()).sendAnalyticsEvent(SamsungPayAnalyticsEvent.REQUEST_PAYMENT_USER_CANCELED.getWireName());
+        assertEquals(2, SamsungPayTransactionStats.getLateFailureCount());
     }
 
     @Test
@@ -693,7 +1707,7 @@ public class SamsungPayUnitTest {
 
         SamsungPay.goToUpdatePage(mBraintreeFragment);
 
-        verify(mBraintreeFragment).sendAnalyticsEvent("samsung-pay.goto-update-page");
+        verify(mBraintreeFragment).sendAnalyticsEvent(SamsungPayAnalyticsEvent.GOTO_UPDATE_PAGE.getWireName());
     }
 
     @Test
@@ -713,14 +1727,14 @@ public class SamsungPayUnitTest {
 
         SamsungPay.activateSamsungPay(mBraintreeFragment);
 
-        verify(mBraintreeFragment).sendAnalyticsEvent("samsung-pay.activate-samsung-pay");
+        verify(mBraintreeFragment).sendAnalyticsEvent(SamsungPayAnalyticsEvent.ACTIVATE_SAMSUNG_PAY.getWireName());
     }
 
-    private void stubSamsungPayStatus(final int status) {
-        stubSamsungPayStatus(status, -10000);
+    private com.samsung.android.sdk.samsungpay.v2.SamsungPay stubSamsungPayStatus(final int status) {
+        return stubSamsungPayStatus(status, -10000);
     }
 
-    private void stubSamsungPayStatus(final int status, final int reason) {
+    private com.samsung.android.sdk.samsungpay.v2.SamsungPay stubSamsungPayStatus(final int status, final int reason) {
         final com.samsung.android.sdk.samsungpay.v2.SamsungPay mockedSamsungPay = mock(com.samsung.android.sdk.samsungpay.v2.SamsungPay.class);
 
         PowerMockito.doAnswer(new Answer<Void>() {
@@ -739,6 +1753,8 @@ public class SamsungPayUnitTest {
         }).when(mockedSamsungPay).getSamsungPayStatus(any(StatusListener.class));
 
         stubSamsungPay(mockedSamsungPay);
+
+        return mockedSamsungPay;
     }
 
     private void stubSamsungPay(final com.samsung.android.sdk.samsungpay.v2.SamsungPay mockedSamsungPay) {
@@ -749,7 +1765,7 @@ public class SamsungPayUnitTest {
         stub(method(SamsungPay.Companion.class, "getPaymentManager")).toReturn(mockedPaymentManager);
     }
 
-    private void stubPaymentManagerRequestCardInfo(final List<CardInfo> cardInfos) {
+    private PaymentManager stubPaymentManagerRequestCardInfo(final List<CardInfo> cardInfos) {
         final PaymentManager mockedPaymentManager = mock(PaymentManager.class);
         PowerMockito.doAnswer(new Answer<Void>() {
             @Override
@@ -761,6 +1777,8 @@ public class SamsungPayUnitTest {
         }).when(mockedPaymentManager).requestCardInfo(any(Bundle.class), any(PaymentManager.CardInfoListener.class));
 
         stubPaymentManager(mockedPaymentManager);
+
+        return mockedPaymentManager;
     }
 
     private void stubPaymentManagerRequestCardInfo(final int errorCode) {
@@ -794,6 +1812,15 @@ public class SamsungPayUnitTest {
                 .build();
     }
 
+    private Executor directExecutor() {
+        return new Executor() {
+            @Override
+            public void execute(Runnable runnable) {
+                runnable.run();
+            }
+        };
+    }
+
     private <T> BraintreeResponseListener<T> emptyResponse() {
         return emptyResponse(null);
     }
@@ -0,0 +1,109 @@
+package com.braintreepayments.api.models;
+
+import com.braintreepayments.api.exceptions.SamsungPayCredentialException;
+import com.braintreepayments.api.test.PaddedCredentials.Padding;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static com.braintreepayments.api.test.FixturesHelper.stringFromFixture;
+import static com.braintreepayments.api.test.PaddedCredentials.credential;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+import static junit.framework.Assert.fail;
+
+@RunWith(RobolectricTestRunner.class)
+public class SamsungPayCredentialParserUnitTest {
+
+    @Test
+    public void parse_acceptsRealCredential() throws JSONException {
+        SamsungPayCredentialParser.Result result = SamsungPayCredentialParser.INSTANCE.parse(
+                stringFromFixture("payment_methods/samsung_pay_response.json"));
+
+        assertEquals("tokensam_bf_v8s9hv_2htw4m_nh4f45_y3hsft_wty", result.getNonce());
+    }
+
+    @Test
+    public void parse_acceptsPaddedCorpusUpToTheLimit() throws JSONException {
+        for (Padding padding : Padding.values()) {
+            for (int size : Arrays.asList(1024, 8 * 1024, 32 * 1024, 60 * 1024)) {
+                String credential = credential(size, padding);
+                assertTrue(credential.length() <= SamsungPayCredentialParser.MAX_CREDENTIAL_LENGTH);
+
+                assertEquals("a-nonce", SamsungPayCredentialParser.INSTANCE.parse(credential).getNonce());
+            }
+        }
+    }
+
+    @Test
+    public void parse_rejectsOversizedCredentialBeforeReading() {
+        StringBuilder credential = new StringBuilder("{");
+        while (credential.length() <= SamsungPayCredentialParser.MAX_CREDENTIAL_LENGTH) {
+            credential.append(' ');
+        }
+
+        assertRejected(credential.toString(), SamsungPayCredentialException.Reason.PAYLOAD_TOO_LARGE);
+    }
+
+    @Test
+    public void parse_rejectsDeeplyNestedUnknownMember() {
+        StringBuilder nesting = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            nesting.append('[');
+        }
+
+        assertRejected("{\"padding\": " + nesting + ", \"data\": {}}",
+                SamsungPayCredentialException.Reason.NESTING_TOO_DEEP);
+    }
+
+    @Test
+    public void parse_countsNestingAcrossStringEncodedPayloads() throws JSONException {
+        StringBuilder nesting = new StringBuilder();
+        for (int i = 0; i < SamsungPayCredentialParser.MAX_DEPTH - 1; i++) {
+            nesting.append("{\"a\":");
+        }
+        nesting.append("1");
+        for (int i = 0; i < SamsungPayCredentialParser.MAX_DEPTH - 1; i++) {
+            nesting.append("}");
+        }
+        String tokenizeResponse = "{\"extensions\": " + nesting + "}";
+        String credential = new JSONObject().put("data", tokenizeResponse).toString();
+
+        assertRejected(credential, SamsungPayCredentialException.Reason.NESTING_TOO_DEEP);
+    }
+
+    @Test
+    public void parse_rejectsMalformedNesting() {
+        List<String> corpus = Arrays.asList(
+                "{\"data\": {\"data\": {",
+                "{\"data\": {\"data\": {\"tokenizeSamsungPayCard\": ]}}}",
+                "{\"data\": \"{\\\"data\\\": {\\\"tokenizeSamsungPayCard\\\": {}}\"",
+                "{\"padding\": [[[]], \"data\": {}}",
+                "{\"data\": \"\"}",
+                "[]");
+
+        for (String credential : corpus) {
+            try {
+                SamsungPayCredentialParser.INSTANCE.parse(credential);
+                fail("Expected JSONException for " + credential);
+            } catch (Exception e) {
+                assertTrue(credential, e instanceof JSONException);
+            }
+        }
+    }
+
+    private static void assertRejected(String credential, SamsungPayCredentialException.Reason reason) {
+        try {
+            SamsungPayCredentialParser.INSTANCE.parse(credential);
+            fail("Expected SamsungPayCredentialException");
+        } catch (Exception e) {
+            assertTrue(e instanceof SamsungPayCredentialException);
+            assertEquals(reason, ((SamsungPayCredentialException) e).getReason());
+        }
+    }}
@@ -0,0 +1,227 @@
+package com.braintreepayments.api.models;
+
+import android.os.Parcel;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import static com.braintreepayments.api.models.BinData.NO;
+import static com.braintreepayments.api.models.BinData.UNKNOWN;
+import static com.braintreepayments.api.models.BinData.YES;
+import static com.braintreepayments.api.test.FixturesHelper.stringFromFixture;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+import static junit.framework.Assert.fail;
+
+@RunWith(RobolectricTestRunner.class)
+public class SamsungPayNonceUnitTest {
+
+    @Test
+    public void fromPaymentData_parsesFixture() {
+        SamsungPayNonce nonce = SamsungPayNonce.Companion.fromPaymentData(
+                stringFromFixture("payment_methods/samsung_pay_response.json"));
+
+        assertEquals("tokensam_bf_v8s9hv_2htw4m_nh4f45_y3hsft_wty", nonce.getNonce());
+        assertEquals("Mastercard", nonce.getCardType());
+        assertEquals("1798", nonce.getSourceCardLast4());
+        assertEquals("ending in 1798", nonce.getDescription());
+        assertEquals(UNKNOWN, nonce.getBinData().getPrepaid());
+        assertEquals(YES, nonce.getBinData().getHealthcare());
+        assertEquals(NO, nonce.getBinData().getDebit());
+        assertEquals(UNKNOWN, nonce.getBinData().getIssuingBank());
+        assertEquals("US", nonce.getBinData().getCountryOfIssuance());
+        assertEquals("123", nonce.getBinData().getProductId());
+    }
+
+    @Test
+    public void fromPaymentData_whenInnerDataIsAString_parsesIt() throws JSONException {
+        JSONObject tokenizeResponse = new JSONObject()
+                .put("data", tokenizeData("Visa", "1111").toString());
+        String credential = new JSONObject()
+                .put("data", tokenizeResponse.toString())
+                .toString();
+
+        SamsungPayNonce nonce = SamsungPayNonce.Companion.fromPaymentData(credential);
+
+        assertEquals("a-nonce", nonce.getNonce());
+        assertEquals("Visa", nonce.getCardType());
+        assertEquals("1111", nonce.getSourceCardLast4());
+    }
+
+    @Test
+    public void fromPaymentData_skipsUnknownMembers() throws JSONException {
+        JSONObject tokenizeResponse = new JSONObject()
+                .put("extensions", new JSONObject().put("data", "not a payload"))
+                .put("data", tokenizeData("Visa", "1111"));
+        String credential = new JSONObject()
+                .put("reference", "a-nonce")
+                .put("payment_shipping_address", new JSONObject().put("data", new JSONObject()))
+                .put("data", tokenizeResponse.toString())
+                .toString();
+
+        SamsungPayNonce nonce = SamsungPayNonce.Companion.fromPaymentData(credential);
+
+        assertEquals("a-nonce", nonce.getNonce());
+        assertEquals("Visa", nonce.getCardType());
+    }
+
+    @Test
+    public void fromPaymentData_withoutBinData_leavesBinDataNull() throws JSONException {
+        JSONObject data = tokenizeData("Visa", "1111");
+        data.getJSONObject("tokenizeSamsungPayCard").getJSONObject("paymentMethod").getJSONObject("details")
+                .remove("binData");
+        String credential = new JSONObject()
+                .put("data", new JSONObject().put("data", data).toString())
+                .toString();
+
+        assertNull(SamsungPayNonce.Companion.fromPaymentData(credential).getBinData());
+    }
+
+    @Test
+    public void fromPaymentData_normalizesOnlyTriStateBinDataFields() throws JSONException {
+        JSONObject data = tokenizeData("Visa", "1111");
+        data.getJSONObject("tokenizeSamsungPayCard").getJSONObject("paymentMethod").getJSONObject("details")
+                .put("binData", new JSONObject()
+                        .put("prepaid", "yes")
+                        .put("payroll", "NO")
+                        .put("commercial", "SOMETHING_NEW")
+                        .put("issuingBank", "NORDEA BANK NORGE")
+                        .put("countryOfIssuance", "NOR")
+                        .put("productId", "UNKNOWN_PRODUCT"));
+        String credential = new JSONObject()
+                .put("data", new JSONObject().put("data", data).toString())
+                .toString();
+
+        BinData binData = SamsungPayNonce.Companion.fromPaymentData(credential).getBinData();
+
+        assertEquals(YES, binData.getPrepaid());
+        assertEquals(NO, binData.getPayroll());
+        assertEquals(UNKNOWN, binData.getCommercial());
+        assertEquals(UNKNOWN, binData.getDebit());
+        assertEquals("NORDEA BANK NORGE", binData.getIssuingBank());
+        assertEquals("NOR", binData.getCountryOfIssuance());
+        assertEquals("UNKNOWN_PRODUCT", binData.getProductId());
+    }
+
+    @Test
+    public void fromPaymentData_withoutNonce_throwsJSONException() throws JSONException {
+        JSONObject data = tokenizeData("Visa", "1111");
+        data.getJSONObject("tokenizeSamsungPayCard").getJSONObject("paymentMethod").remove("id");
+        String credential = new JSONObject()
+                .put("data", new JSONObject().put("data", data).toString())
+                .toString();
+
+        try {
+            SamsungPayNonce.Companion.fromPaymentData(credential);
+            fail("Expected JSONException");
+        } catch (Exception e) {
+            assertTrue(e instanceof JSONException);
+        }
+    }
+
+    @Test
+    public void fromPaymentData_withMalformedPayload_throwsJSONException() {
+        try {
+            SamsungPayNonce.Companion.fromPaymentData("{\"data\": \"{\\\"data\\\": [\"}");
+            fail("Expected JSONException");
+        } catch (Exception e) {
+            assertTrue(e instanceof JSONException);
+        }
+    }
+
+    @Test
+    public void parcelsAllFields() {
+        SamsungPayNonce nonce = SamsungPayNonce.Companion.fromPaymentData(
+                stringFromFixture("payment_methods/samsung_pay_response.json"));
+
+        Parcel parcel = Parcel.obtain();
+        nonce.writeToParcel(parcel, 0);
+        parcel.setDataPosition(0);
+        SamsungPayNonce parceled = SamsungPayNonce.CREATOR.createFromParcel(parcel);
+        parcel.recycle();
+
+        assertEquals("tokensam_bf_v8s9hv_2htw4m_nh4f45_y3hsft_wty", parceled.getNonce());
+        assertEquals("ending in 1798", parceled.getDescription());
+        assertFalse(parceled.isDefault());
+        assertEquals("Mastercard", parceled.getCardType());
+        assertEquals("1798", parceled.getSourceCardLast4());
+        assertEquals(UNKNOWN, parceled.getBinData().getPrepaid());
+        assertEquals(YES, parceled.getBinData().getHealthcare());
+        assertEquals(NO, parceled.getBinData().getDebit());
+        assertEquals(UNKNOWN, parceled.getBinData().getDurbinRegulated());
+        assertEquals(UNKNOWN, parceled.getBinData().getCommercial());
+        assertEquals(UNKNOWN, parceled.getBinData().getPayroll());
+        assertEquals(UNKNOWN, parceled.getBinData().getIssuingBank());
+        assertEquals("US", parceled.getBinData().getCountryOfIssuance());
+        assertEquals("123", parceled.getBinData().getProductId());
+    }
+
+    @Test
+    public void getBinData_decodesOnceAndReturnsSameInstance() {
+        SamsungPayNonce nonce = SamsungPayNonce.Companion.fromPaymentData(
+                stringFromFixture("payment_methods/samsung_pay_response.json"));
+
+        assertSame(nonce.getBinData(), nonce.getBinData());
+    }
+
+    @Test
+    public void setBinData_replacesUndecodedBinData() {
+        SamsungPayNonce nonce = SamsungPayNonce.Companion.fromPaymentData(
+                stringFromFixture("payment_methods/samsung_pay_response.json"));
+
+        nonce.setBinData(null);
+
+        assertNull(nonce.getBinData());
+    }
+
+    @Test
+    public void parcelsDecodedBinData() {
+        SamsungPayNonce nonce = SamsungPayNonce.Companion.fromPaymentData(
+                stringFromFixture("payment_methods/samsung_pay_response.json"));
+        nonce.getBinData();
+
+        Parcel parcel = Parcel.obtain();
+        nonce.writeToParcel(parcel, 0);
+        parcel.setDataPosition(0);
+        SamsungPayNonce parceled = SamsungPayNonce.CREATOR.createFromParcel(parcel);
+        parcel.recycle();
+
+        assertEquals(YES, parceled.getBinData().getHealthcare());
+        assertEquals(NO, parceled.getBinData().getDebit());
+        assertEquals("US", parceled.getBinData().getCountryOfIssuance());
+    }
+
+    @Test
+    public void parcelsNonceWithoutBinData() {
+        SamsungPayNonce nonce = new SamsungPayNonce();
+        nonce.setCardType("Visa");
+
+        Parcel parcel = Parcel.obtain();
+        nonce.writeToParcel(parcel, 0);
+        parcel.setDataPosition(0);
+        SamsungPayNonce parceled = SamsungPayNonce.CREATOR.createFromParcel(parcel);
+        parcel.recycle();
+
+        assertEquals("Visa", parceled.getCardType());
+        assertNull(parceled.getSourceCardLast4());
+        assertNull(parceled.getBinData());
+    }
+
+    private static JSONObject tokenizeData(String brand, String last4) throws JSONException {
+        JSONObject details = new JSONObject()
+                .put("brand", brand)
+                .put("last4", last4)
+                .put("binData", new JSONObject().put("debit", "YES"));
+        JSONObject paymentMethod = new JSONObject()
+                .put("id", "a-nonce")
+                .put("details", details);
+        return new JSONObject()
+                .put("tokenizeSamsungPayCard", new JSONObject().put("paymentMethod", paymentMethod));
+    }
+}